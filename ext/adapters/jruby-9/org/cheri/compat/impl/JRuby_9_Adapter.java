@@ -0,0 +1,229 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.compat.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.cheri.RuntimeResources;
+import org.cheri.compat.JRubyVersionAdapter;
+
+import org.jruby.Finalizable;
+import org.jruby.Ruby;
+import org.jruby.RubyClass;
+import org.jruby.RubyModule;
+import org.jruby.RubyProc;
+import org.jruby.RubyString;
+import org.jruby.RubySymbol;
+import org.jruby.javasupport.JavaSupport;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.builtin.InstanceVariables;
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Adapter for JRuby 9.x and later. Rather than being compiled
+ * against a particular JRuby, it binds the operations it needs as
+ * MethodHandles (by name and signature) when the class is loaded. The
+ * handles are static finals, so the JIT treats calls through them as
+ * direct calls; there is no reflection, or instanceof testing beyond the
+ * symbol/string guard, per call.
+ * <p>
+ * Requires Java 7 or later, so it is built separately from the rest of
+ * Cheri, into ext/adapters/jruby-9. If any operation can't be bound, or
+ * the class can't be loaded, JRubyVersionAdapter falls back to the 1.1
+ * adapter.
+ */
+public class JRuby_9_Adapter extends JRubyVersionAdapter {
+
+    // (Ruby, Object)String
+    private static final MethodHandle SYMBOL_STRING;
+    // (Ruby, Object)String
+    private static final MethodHandle INTERNED_SYMBOL_STRING;
+    // (Object, String)Object
+    private static final MethodHandle GET_INSTANCE_VARIABLE;
+    // (Ruby, Object)Object
+    private static final MethodHandle BLOCK_AS_PROC;
+    // (Object, Object)boolean
+    private static final MethodHandle IS_KIND_OF;
+    // (Ruby, String)Class
+    private static final MethodHandle LOAD_JAVA_CLASS;
+    // (Ruby, Finalizable)void
+    private static final MethodHandle ADD_INTERNAL_FINALIZER;
+
+    static {
+        MethodHandles.Lookup pub = MethodHandles.publicLookup();
+        MethodHandles.Lookup own = MethodHandles.lookup();
+        try {
+            MethodType objToString = MethodType.methodType(String.class, Object.class);
+            MethodHandle symbolToString = pub.findVirtual(RubySymbol.class, "asJavaString",
+                    MethodType.methodType(String.class)).asType(objToString);
+            MethodHandle stringToString = own.findStatic(JRuby_9_Adapter.class, "cachedString",
+                    MethodType.methodType(String.class, Ruby.class, Object.class));
+            MethodHandle isInstance = pub.findVirtual(Class.class, "isInstance",
+                    MethodType.methodType(boolean.class, Object.class));
+            MethodHandle isSymbol = MethodHandles.dropArguments(isInstance.bindTo(RubySymbol.class), 0, Ruby.class);
+            MethodHandle isString = MethodHandles.dropArguments(isInstance.bindTo(RubyString.class), 0, Ruby.class);
+            MethodHandle notSymbol = own.findStatic(JRuby_9_Adapter.class, "notSymbol",
+                    MethodType.methodType(String.class, Ruby.class, Object.class));
+            // symbol strings are already interned, as are those from the
+            // string cache, so both conversions are the same
+            SYMBOL_STRING = MethodHandles.guardWithTest(isSymbol,
+                    MethodHandles.dropArguments(symbolToString, 0, Ruby.class),
+                    MethodHandles.guardWithTest(isString, stringToString, notSymbol));
+            INTERNED_SYMBOL_STRING = SYMBOL_STRING;
+
+            MethodHandle getInstanceVariables = pub.findVirtual(IRubyObject.class, "getInstanceVariables",
+                    MethodType.methodType(InstanceVariables.class));
+            MethodHandle getInstanceVariable = pub.findVirtual(InstanceVariables.class, "getInstanceVariable",
+                    MethodType.methodType(IRubyObject.class, String.class));
+            GET_INSTANCE_VARIABLE = MethodHandles.filterArguments(getInstanceVariable, 0, getInstanceVariables)
+                    .asType(MethodType.methodType(Object.class, Object.class, String.class));
+
+            MethodHandle newProc = pub.findVirtual(Ruby.class, "newProc",
+                    MethodType.methodType(RubyProc.class, Block.Type.class, Block.class));
+            BLOCK_AS_PROC = MethodHandles.insertArguments(newProc, 1, new Object[] { Block.Type.PROC })
+                    .asType(MethodType.methodType(Object.class, Ruby.class, Object.class));
+
+            MethodHandle getMetaClass = pub.findVirtual(IRubyObject.class, "getMetaClass",
+                    MethodType.methodType(RubyClass.class)).asType(MethodType.methodType(RubyModule.class, IRubyObject.class));
+            MethodHandle hasModuleInHierarchy = pub.findVirtual(RubyModule.class, "hasModuleInHierarchy",
+                    MethodType.methodType(boolean.class, RubyModule.class));
+            IS_KIND_OF = MethodHandles.filterArguments(hasModuleInHierarchy, 0, getMetaClass)
+                    .asType(MethodType.methodType(boolean.class, Object.class, Object.class));
+
+            MethodHandle getJavaSupport = pub.findVirtual(Ruby.class, "getJavaSupport",
+                    MethodType.methodType(JavaSupport.class));
+            MethodHandle loadJavaClassVerbose = pub.findVirtual(JavaSupport.class, "loadJavaClassVerbose",
+                    MethodType.methodType(Class.class, String.class));
+            LOAD_JAVA_CLASS = MethodHandles.filterArguments(loadJavaClassVerbose, 0, getJavaSupport);
+
+            ADD_INTERNAL_FINALIZER = pub.findVirtual(Ruby.class, "addInternalFinalizer",
+                    MethodType.methodType(void.class, Finalizable.class));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("JRuby_9_Adapter: " + e.getMessage());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("JRuby_9_Adapter: " + e.getMessage());
+        }
+    }
+
+    public JRuby_9_Adapter() {
+    }
+
+    private static String cachedString(Ruby runtime, Object str) {
+        return RuntimeResources.getResources(runtime).getSymbolStringCache().get((RubyString)str);
+    }
+
+    private static String notSymbol(Ruby runtime, Object obj) {
+        // FIXME: non-standard TypeError message
+        throw runtime.newTypeError("not a symbol: " + obj);
+    }
+
+    // invokeExact declares Throwable; anything checked is a linkage problem
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException)t;
+        } else if (t instanceof Error) {
+            throw (Error)t;
+        }
+        return new IllegalStateException("JRuby_9_Adapter: " + t);
+    }
+
+    public String getAsSymbolString(Ruby runtime, Object obj) {
+        try {
+            return (String)SYMBOL_STRING.invokeExact(runtime, obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public String getAsInternedSymbolString(Ruby runtime, Object obj) {
+        try {
+            return (String)INTERNED_SYMBOL_STRING.invokeExact(runtime, obj);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public Object getInstanceVariable(Ruby runtime, Object self, String name) {
+        try {
+            return (Object)GET_INSTANCE_VARIABLE.invokeExact(self, name);
+        } catch (ClassCastException e) {
+            throw newCheriVersionError(runtime);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public Object fastGetInstanceVariable(Ruby runtime, Object self, String internedName) {
+        // the fast* variants are gone as of 9.0
+        return getInstanceVariable(runtime, self, internedName);
+    }
+
+    public Object getBlockAsProc(Ruby runtime, Object block) {
+        try {
+            return (Object)BLOCK_AS_PROC.invokeExact(runtime, block);
+        } catch (ClassCastException e) {
+            throw newCheriVersionError(runtime);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public boolean isKindOf(Ruby runtime, Object self, Object module) {
+        try {
+            return (boolean)IS_KIND_OF.invokeExact(self, module);
+        } catch (ClassCastException e) {
+            throw newCheriVersionError(runtime);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public Class loadJavaClass(Ruby runtime, String name) {
+        try {
+            return (Class)LOAD_JAVA_CLASS.invokeExact(runtime, name);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    public boolean addTeardownHook(Ruby runtime, final Runnable hook) {
+        // internal finalizers are run by Ruby#tearDown
+        Finalizable finalizer = new Finalizable() {
+            public void finalize() {
+                hook.run();
+            }
+        };
+        try {
+            ADD_INTERNAL_FINALIZER.invokeExact(runtime, finalizer);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,96 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * RuntimeResources.getResources, from one thread and from several at once,
+ * with one or more runtimes in play.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class RuntimeResourcesBenchmark {
+
+    @Param({"1", "4"})
+    public int runtimes;
+
+    private Ruby[] rts;
+
+    @Setup
+    public void setup() {
+        rts = new Ruby[runtimes];
+        for (int i = 0; i < runtimes; i++) {
+            rts[i] = Ruby.newInstance();
+            RuntimeResources.getResources(rts[i]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int next;
+    }
+
+    private RuntimeResources get(ThreadState ts) {
+        Ruby[] rts = this.rts;
+        int i = ts.next;
+        ts.next = i + 1 == rts.length ? 0 : i + 1;
+        return RuntimeResources.getResources(rts[i]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RuntimeResources uncontended(ThreadState ts) {
+        return get(ts);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RuntimeResources contended4(ThreadState ts) {
+        return get(ts);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public RuntimeResources contended16(ThreadState ts) {
+        return get(ts);
+    }
+
+}
@@ -0,0 +1,85 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.compat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.jruby.RubyString;
+import org.jruby.RubySymbol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Symbol (and string) to Java String conversion through the version
+ * adapter, as done by GridTable and the Ruby-facing Java code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class SymbolConversionBenchmark {
+
+    private Ruby runtime;
+    private JRubyVersionAdapter adapter;
+    private RubySymbol symbol;
+    private RubyString string;
+
+    @Setup
+    public void setup() {
+        runtime = Ruby.newInstance();
+        adapter = JRubyVersionAdapter.getAdapter();
+        symbol = runtime.newSymbol("gridwidth");
+        string = runtime.newString("gridwidth");
+    }
+
+    @Benchmark
+    public String symbolString() {
+        return adapter.getAsSymbolString(runtime, symbol);
+    }
+
+    @Benchmark
+    public String internedSymbolString() {
+        return adapter.getAsInternedSymbolString(runtime, symbol);
+    }
+
+    @Benchmark
+    public String stringString() {
+        return adapter.getAsSymbolString(runtime, string);
+    }
+
+    @Benchmark
+    public String internedStringString() {
+        return adapter.getAsInternedSymbolString(runtime, string);
+    }
+
+}
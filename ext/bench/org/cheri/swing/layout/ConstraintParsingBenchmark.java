@@ -0,0 +1,91 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.GridBagConstraints;
+import java.util.concurrent.TimeUnit;
+
+import org.jruby.Ruby;
+import org.jruby.RubyHash;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Constraint hash parsing (GridTable.setHashedValues). Symbol keys and values
+ * are resolved through the per-runtime symbol cache; string keys and values
+ * still take the convert-and-lowercase path, so serve as the baseline. Run
+ * with <code>-prof gc</code> to compare allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConstraintParsingBenchmark {
+
+    private RubyHash symbolHash;
+    private RubyHash stringHash;
+    private final GridBagConstraints c = new GridBagConstraints();
+
+    @Setup
+    public void setup() {
+        Ruby runtime = Ruby.newInstance();
+        symbolHash = newHash(runtime, true);
+        stringHash = newHash(runtime, false);
+    }
+
+    // the equivalent of :wx=>0.5, :f=>:h, :a=>:w, :w=>2, :y=>3
+    private static RubyHash newHash(Ruby runtime, boolean symbols) {
+        RubyHash hash = RubyHash.newHash(runtime);
+        hash.op_aset(key(runtime, "wx", symbols), runtime.newFloat(0.5));
+        hash.op_aset(key(runtime, "f", symbols), key(runtime, "h", symbols));
+        hash.op_aset(key(runtime, "a", symbols), key(runtime, "w", symbols));
+        hash.op_aset(key(runtime, "w", symbols), runtime.newFixnum(2));
+        hash.op_aset(key(runtime, "y", symbols), runtime.newFixnum(3));
+        return hash;
+    }
+
+    private static IRubyObject key(Ruby runtime, String name, boolean symbol) {
+        return symbol ? (IRubyObject)runtime.newSymbol(name) : runtime.newString(name);
+    }
+
+    @Benchmark
+    public GridBagConstraints symbolKeys() {
+        GridTable.setHashedValues(c, symbolHash);
+        return c;
+    }
+
+    @Benchmark
+    public GridBagConstraints stringKeys() {
+        GridTable.setHashedValues(c, stringHash);
+        return c;
+    }
+
+}
@@ -0,0 +1,148 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JTextField;
+
+import org.jruby.Ruby;
+import org.jruby.RubyArray;
+import org.jruby.RubyHash;
+import org.jruby.runtime.builtin.IRubyObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Headless GridTable.addRow, with rows shaped like those of a typical
+ * Cheri form: a row defaults hash, then a label, a text field and (every
+ * few rows) a button, each with its own constraints hash. Components and
+ * rows are created afresh for each invocation (outside the measurement).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GridTableBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int rows;
+
+    private Ruby runtime;
+    private RubyHash rowDefaults;
+    private RubyHash labelConstraints;
+    private RubyHash fieldConstraints;
+    private RubyHash buttonConstraints;
+
+    private GridTable table;
+    private ArrayList gridRows;
+
+    @Setup
+    public void setup() {
+        runtime = Ruby.newInstance();
+        // :i=>[2,4]
+        rowDefaults = RubyHash.newHash(runtime);
+        rowDefaults.op_aset(sym("i"), RubyArray.newArray(runtime, runtime.newFixnum(2), runtime.newFixnum(4)));
+        // :a=>:e, :wx=>0.1
+        labelConstraints = RubyHash.newHash(runtime);
+        labelConstraints.op_aset(sym("a"), sym("e"));
+        labelConstraints.op_aset(sym("wx"), runtime.newFloat(0.1));
+        // :wx=>0.9, :f=>:h, :w=>:rel
+        fieldConstraints = RubyHash.newHash(runtime);
+        fieldConstraints.op_aset(sym("wx"), runtime.newFloat(0.9));
+        fieldConstraints.op_aset(sym("f"), sym("h"));
+        fieldConstraints.op_aset(sym("w"), sym("rel"));
+        // :a=>:w, :p=>[4,2]
+        buttonConstraints = RubyHash.newHash(runtime);
+        buttonConstraints.op_aset(sym("a"), sym("w"));
+        buttonConstraints.op_aset(sym("p"), RubyArray.newArray(runtime, runtime.newFixnum(4), runtime.newFixnum(2)));
+    }
+
+    private IRubyObject sym(String name) {
+        return runtime.newSymbol(name);
+    }
+
+    @Setup(Level.Invocation)
+    public void newTable() {
+        table = new GridTable();
+        gridRows = new ArrayList(rows);
+        for (int i = 0; i < rows; i++) {
+            GridRow row = new GridRow(rowDefaults);
+            row.add(new JLabel("Label " + i), labelConstraints);
+            row.add(new JTextField(), fieldConstraints);
+            if (i % 4 == 0) {
+                row.add(new JButton("..."), buttonConstraints);
+            }
+            gridRows.add(row);
+        }
+    }
+
+    @Benchmark
+    public GridTable addRow() {
+        GridTable table = this.table;
+        ArrayList gridRows = this.gridRows;
+        for (int i = 0, n = gridRows.size(); i < n; i++) {
+            table.addRow((GridRow)gridRows.get(i));
+        }
+        return table;
+    }
+
+    // as the grid_row builder does: refill the table's shared row for each
+    // row, rather than allocating one
+    @Benchmark
+    public GridTable addSharedRow() {
+        GridTable table = this.table;
+        ArrayList gridRows = this.gridRows;
+        for (int i = 0, n = gridRows.size(); i < n; i++) {
+            GridRow src = (GridRow)gridRows.get(i);
+            GridRow row = table.getSharedRow();
+            row.setDefaultConstraints(src.getDefaultConstraints());
+            for (int j = 0, m = src.size(); j < m; j++) {
+                row.add(src.getComponent(j), src.getConstraints(j));
+            }
+            table.addRow(row);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public GridTable addRows() {
+        table.addRows(gridRows);
+        return table;
+    }
+
+}
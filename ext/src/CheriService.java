@@ -24,7 +24,7 @@
  ***** END LICENSE BLOCK *****/
 
 
-//import org.cheri.Cheri;
+import org.cheri.Cheri;
 import org.jruby.Ruby;
 import org.jruby.runtime.load.BasicLibraryService;
 
@@ -32,7 +32,7 @@ public class CheriService implements BasicLibraryService {
 
     public boolean basicLoad(Ruby runtime) {
 
-        //Cheri.createCheriModule(runtime);
+        Cheri.createCheriModule(runtime);
 
         return true;
     }
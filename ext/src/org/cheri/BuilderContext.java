@@ -0,0 +1,797 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.jruby.Ruby;
+import org.jruby.RubyArray;
+import org.jruby.RubyClass;
+import org.jruby.RubyException;
+import org.jruby.RubyFixnum;
+import org.jruby.RubyHash;
+import org.jruby.RubyObject;
+import org.jruby.RubyString;
+import org.jruby.RubySymbol;
+import org.jruby.anno.JRubyMethod;
+import org.jruby.exceptions.RaiseException;
+import org.jruby.runtime.Block;
+import org.jruby.runtime.ObjectAllocator;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.Visibility;
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Native implementation of the stack, builder lookup and connect-on-pop
+ * logic of Cheri::Builder::Context, whose Ruby methods (in
+ * lib/cheri/builder/context.rb) remain as the fallback. install replaces
+ * those methods, and Context's allocator, so contexts are instances of this
+ * class. The Ruby initialize still runs, and sets the state used by the
+ * methods that stay in Ruby (cfg, aliases, auto, props, etc.); the stack
+ * (@s, @a) and the pending connections (@m) are kept here instead, as is
+ * the builder dispatch cache (@d, @e, @v; see findBuilder).
+ * <p>
+ * As in Ruby, a context belongs to one thread, so none of this is
+ * synchronized.
+ * <p>
+ * While the profiler (lib/cheri/builder/profiler.rb) is running, send,
+ * msend and nsend call bld, csm and ctc as Ruby methods, so that its
+ * wrappers see them.
+ */
+public class BuilderContext extends RubyObject {
+
+    private static final ObjectAllocator ALLOCATOR = new ObjectAllocator() {
+        public IRubyObject allocate(Ruby runtime, RubyClass klass) {
+            return new BuilderContext(runtime, klass);
+        }
+    };
+
+    static void install(RubyClass contextClass) {
+        contextClass.setAllocator(ALLOCATOR);
+        contextClass.defineAnnotatedMethods(BuilderContext.class);
+    }
+
+    private final ArrayList stack = new ArrayList(); // @s
+    private ArrayList anys; // @a - frames on the stack for which any? is true
+    private boolean preparingAny; // @ax
+    private final ConnectionMinder minder = new ConnectionMinder(); // @m
+    // fetched on first use, as the Ruby initialize must have run
+    private RubyHash factories; // @f
+    private RubyHash connecters; // @n
+    private RubyHash consumers; // @g.consumers
+    private RubyHash aliases; // @l
+    private IRubyObject cherifySymbol;
+    private IRubyObject cheriYieldSymbol;
+    private RuntimeResources resources;
+    // the dispatch cache: the node for each stack frame, and the root;
+    // valid while dispatchSerial matches the runtime's
+    private final ArrayList nodes = new ArrayList(); // @d
+    private DispatchNode dispatchRoot; // @e
+    private int dispatchSerial; // @v
+    private boolean dispatchLocal; // @w - the cache may depend on this context's state
+
+    public BuilderContext(Ruby runtime, RubyClass metaClass) {
+        super(runtime, metaClass);
+    }
+
+    private void init(ThreadContext context) {
+        IRubyObject cfg = callMethod(context, "cfg");
+        connecters = (RubyHash)cfg.callMethod(context, "connecters");
+        consumers = (RubyHash)cfg.callMethod(context, "consumers");
+        aliases = (RubyHash)callMethod(context, "als");
+        Ruby runtime = context.getRuntime();
+        cherifySymbol = runtime.newSymbol("cherify");
+        cheriYieldSymbol = runtime.newSymbol("cheri_yield");
+        resources = RuntimeResources.getResources(runtime);
+        factories = (RubyHash)cfg.callMethod(context, "factories");
+    }
+
+    // Context#send
+    @JRubyMethod(name = "send", required = 1, rest = true)
+    public IRubyObject cheriSend(ThreadContext context, IRubyObject[] args, Block block) {
+        if (factories == null) init(context);
+        Ruby runtime = context.getRuntime();
+        IRubyObject sym = resolveAlias(checkSymbol(context, args[0]));
+        minder.check(sym, args, 1);
+        IRubyObject b;
+        if ((b = sendBuilder(context, sym, args, block)) != null) {
+            IRubyObject res = b.callMethod(context, "run");
+            sendConnect(context, b);
+            return RubyArray.newArray(runtime, runtime.getTrue(), res);
+        } else if (stack.isEmpty()) {
+            return RubyArray.newArray(runtime, runtime.getFalse(), runtime.getNil());
+        }
+        if (sym != args[0]) {
+            args = (IRubyObject[])args.clone();
+            args[0] = sym;
+        }
+        if (resources.isProfiling()) return callMethod(context, "csm", args, block);
+        return consume(context, args, block);
+    }
+
+    // Context#msend
+    @JRubyMethod(name = "msend", required = 2, rest = true)
+    public IRubyObject msend(ThreadContext context, IRubyObject[] args, Block block) {
+        if (factories == null) init(context);
+        IRubyObject sym = checkSymbol(context, args[1]);
+        IRubyObject f = moduleFactory(context, args[0]);
+        sym = resolveAlias(sym);
+        minder.check(sym, args, 2);
+        IRubyObject b;
+        if (!(b = f.callMethod(context, "builder", builderArgs(sym, args, 2), block)).isTrue()) {
+            throw noMethodError(context, sym, args[0]);
+        }
+        IRubyObject res = b.callMethod(context, "run");
+        sendConnect(context, b);
+        return res;
+    }
+
+    // Context#nsend
+    @JRubyMethod(name = "nsend", required = 3, rest = true)
+    public IRubyObject nsend(ThreadContext context, IRubyObject[] args, Block block) {
+        if (factories == null) init(context);
+        IRubyObject ns = checkSymbol(context, args[1]);
+        IRubyObject sym = checkSymbol(context, args[2]);
+        IRubyObject f = moduleFactory(context, args[0]);
+        sym = resolveAlias(sym);
+        minder.check(sym, args, 3);
+        IRubyObject b;
+        if (!(b = f.callMethod(context, "builder", builderArgs(sym, args, 3), block)).isTrue()) {
+            throw noMethodError(context, sym, args[0]);
+        }
+        if (!b.respondsTo("ns=")) {
+            Ruby runtime = context.getRuntime();
+            throw typeError(context, b, RuntimeResources.getResources(runtime).getCheriBuilder().getConstant("Markup"));
+        }
+        b.callMethod(context, "ns=", ns);
+        IRubyObject res = b.callMethod(context, "run");
+        sendConnect(context, b);
+        return res;
+    }
+
+    @JRubyMethod(name = {"push", "push_frame"}, required = 1)
+    public IRubyObject push(ThreadContext context, IRubyObject f) {
+        if (!f.isTrue()) {
+            throw context.getRuntime().newArgumentError("invalid argument - can't push: " + f.callMethod(context, "to_s"));
+        }
+        stack.add(f);
+        minder.pushed(f);
+        if (f.callMethod(context, "any?").isTrue()) {
+            if (anys == null) anys = new ArrayList(4);
+            anys.add(f);
+        }
+        if (dispatchRoot != null) {
+            nodes.add(currentNode().child(frameFactory(context, f)));
+        }
+        return this;
+    }
+
+    @JRubyMethod(name = {"pop", "pop_frame"})
+    public IRubyObject pop(ThreadContext context) {
+        int size = stack.size();
+        IRubyObject f = size > 0 ? (IRubyObject)stack.remove(size - 1) : context.getRuntime().getNil();
+        minder.popped(context, f);
+        if (f.callMethod(context, "any?").isTrue() && anys != null && !anys.isEmpty()) {
+            anys.remove(anys.size() - 1);
+        }
+        if (size > 0 && !nodes.isEmpty()) {
+            nodes.remove(nodes.size() - 1);
+        }
+        return f;
+    }
+
+    @JRubyMethod(name = {"top", "peek"})
+    public IRubyObject top(ThreadContext context) {
+        int size = stack.size();
+        return size > 0 ? (IRubyObject)stack.get(size - 1) : context.getRuntime().getNil();
+    }
+
+    @JRubyMethod(name = "bottom")
+    public IRubyObject bottom(ThreadContext context) {
+        return stack.isEmpty() ? context.getRuntime().getNil() : (IRubyObject)stack.get(0);
+    }
+
+    @JRubyMethod(name = {"each", "each_frame"})
+    public IRubyObject each(ThreadContext context, Block block) {
+        if (block.isGiven()) {
+            ArrayList stack = this.stack;
+            for (int i = stack.size(); --i >= 0; ) {
+                // the block may pop frames
+                if (i < stack.size()) block.yield(context, (IRubyObject)stack.get(i));
+            }
+        }
+        return context.getRuntime().getNil();
+    }
+
+    @JRubyMethod(name = {"reach", "reverse_each", "reverse_each_frame"})
+    public IRubyObject reach(ThreadContext context, Block block) {
+        if (block.isGiven()) {
+            ArrayList stack = this.stack;
+            for (int i = 0; i < stack.size(); i++) {
+                block.yield(context, (IRubyObject)stack.get(i));
+            }
+        }
+        return context.getRuntime().getNil();
+    }
+
+    @JRubyMethod(name = {"size", "length", "stack_size"})
+    public IRubyObject size(ThreadContext context) {
+        return RubyFixnum.newFixnum(context.getRuntime(), stack.size());
+    }
+
+    @JRubyMethod(name = {"empty?", "stack_empty?"})
+    public IRubyObject empty_p(ThreadContext context) {
+        return context.getRuntime().newBoolean(stack.isEmpty());
+    }
+
+    @JRubyMethod(name = "active?")
+    public IRubyObject active_p(ThreadContext context) {
+        return context.getRuntime().newBoolean(!stack.isEmpty());
+    }
+
+    @JRubyMethod(name = {"tos", "type_on_stack?"}, required = 1)
+    public IRubyObject tos(ThreadContext context, IRubyObject type) {
+        ArrayList stack = this.stack;
+        for (int i = stack.size(); --i >= 0; ) {
+            if (type.callMethod(context, "===", (IRubyObject)stack.get(i)).isTrue()) {
+                return context.getRuntime().getTrue();
+            }
+        }
+        return context.getRuntime().getFalse();
+    }
+
+    // Context#bld
+    @JRubyMethod(name = {"bld", "builder"}, rest = true)
+    public IRubyObject bld(ThreadContext context, IRubyObject[] args, Block block) {
+        if (factories == null) init(context);
+        IRubyObject[] fargs = new IRubyObject[args.length + 1];
+        fargs[0] = this;
+        System.arraycopy(args, 0, fargs, 1, args.length);
+        IRubyObject b;
+        return (b = findBuilder(context, fargs, block)) != null ? b : context.getRuntime().getNil();
+    }
+
+    // Context#dispatch_changed
+    @JRubyMethod(name = "dispatch_changed")
+    public IRubyObject dispatch_changed(ThreadContext context) {
+        dispatchRoot = null;
+        nodes.clear();
+        dispatchLocal = true;
+        return context.getRuntime().getNil();
+    }
+
+    // Context#clr: clears the stack and pending connections, and the
+    // dispatch cache if dispatch_changed has been called (for Context#reset).
+    // the rest of the state is refetched on next use, as the context may be
+    // rebound to another instance.
+    @JRubyMethod(name = "clr", visibility = Visibility.PRIVATE)
+    public IRubyObject clr(ThreadContext context) {
+        stack.clear();
+        if (anys != null) anys.clear();
+        preparingAny = false;
+        minder.clear();
+        nodes.clear();
+        if (dispatchLocal) {
+            dispatchRoot = null;
+            dispatchLocal = false;
+        }
+        factories = null;
+        return context.getRuntime().getNil();
+    }
+
+    // Context#csm
+    @JRubyMethod(name = {"csm", "consume"}, rest = true)
+    public IRubyObject csm(ThreadContext context, IRubyObject[] args, Block block) {
+        if (factories == null) init(context);
+        return consume(context, args, block);
+    }
+
+    // Context#ctc
+    @JRubyMethod(name = {"ctc", "connect"}, required = 1, visibility = Visibility.PRIVATE)
+    public IRubyObject ctc(ThreadContext context, IRubyObject frame) {
+        if (factories == null) init(context);
+        connect(context, frame);
+        return context.getRuntime().getNil();
+    }
+
+    // Context#ppd
+    @JRubyMethod(name = {"ppd", "prepared"}, required = 4, optional = 1)
+    public IRubyObject ppd(ThreadContext context, IRubyObject[] args) {
+        Ruby runtime = context.getRuntime();
+        IRubyObject props = args.length > 4 ? args[4] : runtime.getNil();
+        if (preparingAny) {
+            minder.prepareAny(context, args[0], args[1], args[2], args[3], props);
+        } else {
+            minder.prepare(context, args[0], args[1], args[2], args[3], props);
+        }
+        return runtime.getTrue();
+    }
+
+    // Context#pending?
+    @JRubyMethod(name = "pending?", required = 1)
+    public IRubyObject pending_p(ThreadContext context, IRubyObject builder) {
+        return context.getRuntime().newBoolean(minder.isPending(context, builder));
+    }
+
+    // search the stack for a frame whose module's factory can supply a
+    // builder, then any auto-enabled modules. fargs are the args for
+    // Factory#builder: [self, sym, *args]. returns null if no match.
+    // the answer is cached for the symbol in the current DispatchNode, so
+    // that a repeat goes straight to the factory that answered, or (if none
+    // did) straight to consume. :cherify and :cheri_yield depend on their
+    // args, so aren't cached.
+    private IRubyObject findBuilder(ThreadContext context, IRubyObject[] fargs, Block block) {
+        RubyHash factories = this.factories;
+        ArrayList stack = this.stack;
+        ArrayList queried = null;
+        IRubyObject f;
+        IRubyObject b;
+        IRubyObject sym = fargs.length > 1 ? fargs[1] : null;
+        DispatchNode node = null;
+        if (sym instanceof RubySymbol && sym != cherifySymbol && sym != cheriYieldSymbol) {
+            Object cached;
+            if ((cached = (node = dispatchNode(context)).get(sym)) == DispatchNode.NO_FACTORY) {
+                return null;
+            } else if (cached != null) {
+                f = (IRubyObject)cached;
+                if ((b = f.callMethod(context, "builder", (IRubyObject[])fargs.clone(), block)).isTrue()) {
+                    return b;
+                }
+                queried = new ArrayList(4);
+                queried.add(f);
+            }
+        }
+        for (int i = stack.size(); --i >= 0; ) {
+            if ((f = factories.fastARef(((IRubyObject)stack.get(i)).callMethod(context, "mod"))) != null &&
+                    f.isTrue() && (queried == null || !containsSame(queried, f))) {
+                if ((b = f.callMethod(context, "builder", (IRubyObject[])fargs.clone(), block)).isTrue()) {
+                    if (node != null) node.put(sym, f);
+                    return b;
+                }
+                if (queried == null) queried = new ArrayList(4);
+                queried.add(f);
+            }
+        }
+        IRubyObject auto;
+        if ((auto = callMethod(context, "auto")) instanceof RubyArray) {
+            IRubyObject[] mods = ((RubyArray)auto).toJavaArray();
+            for (int i = 0; i < mods.length; i++) {
+                if ((f = factories.fastARef(mods[i])) != null &&
+                        f.isTrue() && (queried == null || !containsSame(queried, f))) {
+                    if ((b = f.callMethod(context, "builder", (IRubyObject[])fargs.clone(), block)).isTrue()) {
+                        if (node != null) node.put(sym, f);
+                        return b;
+                    }
+                    if (queried == null) queried = new ArrayList(4);
+                    queried.add(f);
+                }
+            }
+        }
+        if (node != null) node.put(sym, DispatchNode.NO_FACTORY);
+        return null;
+    }
+
+    // the DispatchNode for the current stack, (re)building the nodes if the
+    // cache has been invalidated
+    private DispatchNode dispatchNode(ThreadContext context) {
+        int serial = resources.getDispatchSerial();
+        if (dispatchRoot == null || serial != dispatchSerial) {
+            dispatchSerial = serial;
+            DispatchNode node = dispatchRoot = new DispatchNode(null);
+            ArrayList stack = this.stack;
+            ArrayList nodes = this.nodes;
+            nodes.clear();
+            for (int i = 0; i < stack.size(); i++) {
+                nodes.add(node = node.child(frameFactory(context, (IRubyObject)stack.get(i))));
+            }
+            return node;
+        }
+        return currentNode();
+    }
+
+    private DispatchNode currentNode() {
+        int size;
+        return (size = nodes.size()) > 0 ? (DispatchNode)nodes.get(size - 1) : dispatchRoot;
+    }
+
+    private IRubyObject frameFactory(ThreadContext context, IRubyObject frame) {
+        if (factories == null) init(context);
+        IRubyObject f;
+        return (f = factories.fastARef(frame.callMethod(context, "mod"))) != null && f.isTrue() ? f : null;
+    }
+
+    // only the topmost frame may consume
+    private IRubyObject consume(ThreadContext context, IRubyObject[] args, Block block) {
+        Ruby runtime = context.getRuntime();
+        int size;
+        if ((size = stack.size()) == 0) {
+            return RubyArray.newArray(runtime, runtime.getFalse(), runtime.getNil());
+        }
+        IRubyObject b = (IRubyObject)stack.get(size - 1);
+        if (b.respondsTo("consume")) {
+            return b.callMethod(context, "consume", args, block);
+        }
+        IRubyObject c;
+        if (b.callMethod(context, "object").isTrue() &&
+                (c = consumers.fastARef(b.callMethod(context, "mod"))) != null && c.isTrue()) {
+            IRubyObject[] cargs = new IRubyObject[args.length + 2];
+            cargs[0] = this;
+            cargs[1] = b;
+            System.arraycopy(args, 0, cargs, 2, args.length);
+            return c.callMethod(context, "consume", cargs, block);
+        }
+        return RubyArray.newArray(runtime, runtime.getFalse(), runtime.getNil());
+    }
+
+    private void connect(ThreadContext context, IRubyObject frame) {
+        // make sure there's something to connect to, and the frame wants to connect
+        if (stack.isEmpty() || !frame.callMethod(context, "child?").isTrue()) return;
+
+        // offer the builder/object the opportunity to connect itself
+        if (frame.respondsTo("connect") && frame.callMethod(context, "connect", this).isTrue()) return;
+
+        IRubyObject sym;
+        IRubyObject obj;
+        if (!(sym = frame.callMethod(context, "sym")).isTrue() ||
+                !(obj = frame.callMethod(context, "object")).isTrue()) {
+            return;
+        }
+        IRubyObject props = frame.respondsTo("props") ?
+                frame.callMethod(context, "props") : context.getRuntime().getNil();
+
+        // the first (closest) frame on the stack with an object we can connect to
+        ArrayList stack = this.stack;
+        IRubyObject parent = null;
+        for (int i = stack.size(); --i >= 0; ) {
+            IRubyObject b = (IRubyObject)stack.get(i);
+            if (b.callMethod(context, "parent?").isTrue() && b.callMethod(context, "object").isTrue()) {
+                parent = b;
+                break;
+            }
+        }
+        RubyHash connecters = this.connecters;
+        IRubyObject n;
+        if (parent != null && (n = connecters.fastARef(parent.callMethod(context, "mod"))) != null && n.isTrue()) {
+            n.callMethod(context, "prepare", new IRubyObject[] {this, parent, obj, sym, props});
+        }
+
+        // now any 'any' frames
+        ArrayList anys;
+        if ((anys = this.anys) != null) {
+            preparingAny = true;
+            try {
+                for (int i = anys.size(); --i >= 0; ) {
+                    IRubyObject a = (IRubyObject)anys.get(i);
+                    if (a.callMethod(context, "object").isTrue() &&
+                            (n = connecters.fastARef(a.callMethod(context, "mod"))) != null && n.isTrue()) {
+                        n.callMethod(context, "prepare", new IRubyObject[] {this, a, obj, sym, props});
+                    }
+                }
+            } finally {
+                preparingAny = false;
+            }
+        }
+    }
+
+    private IRubyObject resolveAlias(IRubyObject sym) {
+        RubyHash aliases;
+        IRubyObject alias;
+        if (!(aliases = this.aliases).isEmpty() && (alias = aliases.fastARef(sym)) != null && alias.isTrue()) {
+            return alias;
+        }
+        return sym;
+    }
+
+    private IRubyObject moduleFactory(ThreadContext context, IRubyObject mod) {
+        IRubyObject f;
+        if ((f = factories.fastARef(mod)) == null || !f.isTrue()) {
+            throw context.getRuntime().newArgumentError("not a valid builder module: " + mod.callMethod(context, "to_s"));
+        }
+        return f;
+    }
+
+    // [self, sym, *args[start..-1]]
+    // the builder lookup for send: via the Ruby bld if profiling
+    private IRubyObject sendBuilder(ThreadContext context, IRubyObject sym, IRubyObject[] args, Block block) {
+        if (!resources.isProfiling()) return findBuilder(context, builderArgs(sym, args, 1), block);
+        IRubyObject[] bargs = (IRubyObject[])args.clone();
+        bargs[0] = sym;
+        IRubyObject b;
+        return (b = callMethod(context, "bld", bargs, block)).isNil() ? null : b;
+    }
+
+    private void sendConnect(ThreadContext context, IRubyObject b) {
+        if (resources.isProfiling()) {
+            callMethod(context, "ctc", b);
+        } else {
+            connect(context, b);
+        }
+    }
+
+    private IRubyObject[] builderArgs(IRubyObject sym, IRubyObject[] args, int start) {
+        int length = args.length - start;
+        IRubyObject[] fargs = new IRubyObject[length + 2];
+        fargs[0] = this;
+        fargs[1] = sym;
+        System.arraycopy(args, start, fargs, 2, length);
+        return fargs;
+    }
+
+    private static IRubyObject checkSymbol(ThreadContext context, IRubyObject sym) {
+        if (!(sym instanceof RubySymbol)) {
+            throw typeError(context, sym, context.getRuntime().getSymbol());
+        }
+        return sym;
+    }
+
+    // as raise Cheri.type_error(obj, type)
+    private static RaiseException typeError(ThreadContext context, IRubyObject obj, IRubyObject type) {
+        IRubyObject error = context.getRuntime().getModule("Cheri").callMethod(context, "type_error",
+                new IRubyObject[] {obj, type});
+        return new RaiseException((RubyException)error);
+    }
+
+    private static RaiseException noMethodError(ThreadContext context, IRubyObject sym, IRubyObject mod) {
+        Ruby runtime = context.getRuntime();
+        return new RaiseException(runtime, runtime.getNoMethodError(),
+                "undefined method '" + sym.asJavaString() + "' for " + mod.callMethod(context, "to_s"), true);
+    }
+
+    private static boolean containsSame(ArrayList list, Object obj) {
+        for (int i = list.size(); --i >= 0; ) {
+            if (list.get(i) == obj) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A node in the trie of dispatch cache signatures. The path to a node is
+     * the order in which distinct factories were pushed (a frame whose
+     * factory is that of the frame below it, or that has none, stays on the
+     * same node), which determines the order in which findBuilder queries
+     * them. Each node maps symbols to the factory that supplied a builder,
+     * or NO_FACTORY.
+     */
+    private static final class DispatchNode {
+        static final Object NO_FACTORY = new Object();
+        // answers are dropped wholesale once we reach this
+        private static final int MAX_ENTRIES = 512;
+
+        private final IRubyObject factory; // the factory pushed to reach this node
+        private IdentityHashMap children;
+        private final IdentityHashMap answers = new IdentityHashMap();
+
+        DispatchNode(IRubyObject factory) {
+            this.factory = factory;
+        }
+
+        DispatchNode child(IRubyObject f) {
+            if (f == null || f == factory) return this;
+            DispatchNode child;
+            if (children == null) {
+                children = new IdentityHashMap(4);
+            } else if ((child = (DispatchNode)children.get(f)) != null) {
+                return child;
+            }
+            children.put(f, child = new DispatchNode(f));
+            return child;
+        }
+
+        Object get(IRubyObject sym) {
+            return answers.get(sym);
+        }
+
+        void put(IRubyObject sym, Object answer) {
+            if (answers.size() >= MAX_ENTRIES) {
+                answers.clear();
+            }
+            answers.put(sym, answer);
+        }
+    }
+
+    /**
+     * Tracks prepared connections until their parent builder is popped, and
+     * cancels those whose object is passed to a method or constructor
+     * invoked through Cheri (see the note at Context::ConnectionMinder). As
+     * there, the pending connections are kept for each level of the stack, as
+     * runs of CONN_SIZE entries (connecter, parent object, object, sym,
+     * props) in lists reused from one builder to the next; a cancelled
+     * connection's connecter is set to null. Each pending object maps to
+     * its level and position, so cancelling one doesn't search, and args
+     * that can't be pending objects (immediates, Strings and Symbols) aren't
+     * looked up.
+     */
+    private static final class ConnectionMinder {
+        private static final int CONN_SIZE = 5;
+
+        // the builders on the stack, and their pending connections, by level
+        private final ArrayList builders = new ArrayList();
+        private final ArrayList pending = new ArrayList();
+        // pending 'any' connections, by level
+        private ArrayList pendingAny;
+        // the Pending entry for each object
+        private final IdentityHashMap objects = new IdentityHashMap();
+        private int depth;
+
+        void pushed(IRubyObject builder) {
+            int n;
+            if ((n = depth++) < builders.size()) {
+                builders.set(n, builder);
+            } else {
+                builders.add(builder);
+                pending.add(new ArrayList(4 * CONN_SIZE));
+            }
+        }
+
+        // connect the popped builder's pending connections
+        void popped(ThreadContext context, IRubyObject builder) {
+            if (depth == 0) return;
+            int n = --depth;
+            builders.set(n, null);
+            ArrayList conns;
+            if (pendingAny != null && n < pendingAny.size() &&
+                    (conns = (ArrayList)pendingAny.get(n)) != null && !conns.isEmpty()) {
+                RubyClass standardError = context.getRuntime().getStandardError();
+                try {
+                    for (int i = 0; i < conns.size(); i += CONN_SIZE) {
+                        try {
+                            connect(context, conns, i);
+                        } catch (RaiseException e) {
+                            // as 'rescue nil'
+                            if (!standardError.isInstance(e.getException())) throw e;
+                        }
+                    }
+                } finally {
+                    conns.clear();
+                }
+            }
+            if (!(conns = (ArrayList)pending.get(n)).isEmpty()) {
+                try {
+                    for (int i = 0; i < conns.size(); i += CONN_SIZE) {
+                        if (conns.get(i) != null) connect(context, conns, i);
+                    }
+                } finally {
+                    IdentityHashMap objects = this.objects;
+                    for (int i = 2; i < conns.size(); i += CONN_SIZE) {
+                        objects.remove(conns.get(i));
+                    }
+                    conns.clear();
+                }
+            }
+        }
+
+        void prepare(ThreadContext context, IRubyObject connecter, IRubyObject builder,
+                IRubyObject obj, IRubyObject sym, IRubyObject props) {
+            int n = level(context, builder);
+            ArrayList conns = (ArrayList)pending.get(n);
+            // an object pending twice at one level keeps the earlier entry,
+            // so both are cancelled
+            Pending earlier = (Pending)objects.get(obj);
+            objects.put(obj, new Pending(n, conns.size(), earlier != null && earlier.level == n ? earlier : null));
+            add(conns, connecter, builder.callMethod(context, "object"), obj, sym, props);
+        }
+
+        void prepareAny(ThreadContext context, IRubyObject connecter, IRubyObject builder,
+                IRubyObject obj, IRubyObject sym, IRubyObject props) {
+            int n = level(context, builder);
+            if (pendingAny == null) pendingAny = new ArrayList();
+            while (pendingAny.size() <= n) pendingAny.add(null);
+            ArrayList conns;
+            if ((conns = (ArrayList)pendingAny.get(n)) == null) {
+                pendingAny.set(n, conns = new ArrayList(4 * CONN_SIZE));
+            }
+            add(conns, connecter, builder.callMethod(context, "object"), obj, sym, props);
+        }
+
+        boolean isPending(ThreadContext context, IRubyObject builder) {
+            return !((ArrayList)pending.get(level(context, builder))).isEmpty();
+        }
+
+        // cancel pending connections for any of args[start..-1] (or the
+        // values of a trailing hash), unless sym is :cheri_yield or :cherify,
+        // which _want_ their args connected.
+        void check(IRubyObject sym, IRubyObject[] args, int start) {
+            int length;
+            if ((length = args.length) <= start || objects.isEmpty()) return;
+            String name = sym.asJavaString();
+            if ("cheri_yield".equals(name) || "cherify".equals(name)) return;
+            for (int i = start; i < length; i++) {
+                cancel(args[i]);
+            }
+            if (args[length - 1] instanceof RubyHash) {
+                for (Iterator it = ((RubyHash)args[length - 1]).directEntrySet().iterator(); it.hasNext(); ) {
+                    cancel((IRubyObject)((Map.Entry)it.next()).getValue());
+                }
+            }
+        }
+
+        // discard all pending connections (see Context#reset)
+        void clear() {
+            for (int i = builders.size(); --i >= 0; ) {
+                builders.set(i, null);
+                ((ArrayList)pending.get(i)).clear();
+            }
+            if (pendingAny != null) {
+                for (int i = pendingAny.size(); --i >= 0; ) {
+                    ArrayList conns;
+                    if ((conns = (ArrayList)pendingAny.get(i)) != null) conns.clear();
+                }
+            }
+            objects.clear();
+            depth = 0;
+        }
+
+        private void cancel(IRubyObject obj) {
+            if (obj.isImmediate() || obj instanceof RubyString || obj instanceof RubySymbol) return;
+            for (Pending p = (Pending)objects.remove(obj); p != null; p = p.earlier) {
+                ArrayList conns = (ArrayList)pending.get(p.level);
+                if (p.index + 2 < conns.size() && conns.get(p.index + 2) == obj) {
+                    conns.set(p.index, null);
+                }
+            }
+        }
+
+        private int level(ThreadContext context, IRubyObject builder) {
+            ArrayList builders = this.builders;
+            for (int n = depth; --n >= 0; ) {
+                if (builders.get(n) == builder) return n;
+            }
+            throw context.getRuntime().newArgumentError("can't prepare connection: builder not on stack");
+        }
+
+        private static void add(ArrayList conns, IRubyObject connecter, IRubyObject parent,
+                IRubyObject obj, IRubyObject sym, IRubyObject props) {
+            conns.add(connecter);
+            conns.add(parent);
+            conns.add(obj);
+            conns.add(sym);
+            conns.add(props);
+        }
+
+        private static void connect(ThreadContext context, ArrayList conns, int i) {
+            ((IRubyObject)conns.get(i)).callMethod(context, "connect", new IRubyObject[] {
+                    (IRubyObject)conns.get(i + 1), (IRubyObject)conns.get(i + 2),
+                    (IRubyObject)conns.get(i + 3), (IRubyObject)conns.get(i + 4)});
+        }
+
+        // where an object's pending connection is
+        private static final class Pending {
+            final int level;
+            final int index;
+            final Pending earlier;
+
+            Pending(int level, int index, Pending earlier) {
+                this.level = level;
+                this.index = index;
+                this.earlier = earlier;
+            }
+        }
+    }
+
+}
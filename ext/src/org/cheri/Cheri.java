@@ -50,7 +50,11 @@ public class Cheri {
         RuntimeResources.getResources(runtime).setCheri(cheriModule);
         //CallbackFactory callbackFactory = runtime.callbackFactory(Cheri.class);
 
-        //CheriBuilder.createCheriBuilderModule(runtime, cheriModule);
+        try {
+            CheriBuilder.createCheriBuilderModule(runtime, cheriModule);
+        } catch (LinkageError e) {
+            // JRuby 1.0 (no annotated methods); the Ruby builder context is used
+        }
         //CheriJava.createJavaModule(runtime, cheriModule);
         return cheriModule;
     }
@@ -0,0 +1,87 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import org.jruby.Ruby;
+import org.jruby.RubyClass;
+import org.jruby.RubyFixnum;
+import org.jruby.RubyModule;
+import org.jruby.anno.JRubyMethod;
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Defines the Java parts of Cheri::Builder: <code>Cheri::Builder.native_context!</code>,
+ * which lib/cheri/builder/context.rb calls (if it is defined) to install
+ * BuilderContext over the Ruby Context, the dispatch serial methods it
+ * uses, <code>Cheri::Builder.profiling=</code> (see BuilderContext), and
+ * Cheri::Builder::ContextMap. Setting the system property
+ * <code>cheri.context.native</code> to <code>false</code> leaves them
+ * undefined, so the Ruby implementations are used.
+ */
+public class CheriBuilder {
+
+    public static final String NATIVE_CONTEXT_PROPERTY = "cheri.context.native";
+
+    public static RubyModule createCheriBuilderModule(Ruby runtime, RubyModule cheriModule) {
+        RubyModule builderModule = cheriModule.defineModuleUnder("Builder");
+        RuntimeResources.getResources(runtime).setCheriBuilder(builderModule);
+        if (!"false".equalsIgnoreCase(System.getProperty(NATIVE_CONTEXT_PROPERTY))) {
+            builderModule.defineAnnotatedMethods(CheriBuilder.class);
+            ContextMap.createContextMapClass(runtime, builderModule);
+        }
+        return builderModule;
+    }
+
+    @JRubyMethod(name = "native_context!", required = 1, meta = true)
+    public static IRubyObject nativeContext(IRubyObject self, IRubyObject contextClass) {
+        Ruby runtime = self.getRuntime();
+        if (!(contextClass instanceof RubyClass)) {
+            throw runtime.newTypeError("not a class: " + contextClass);
+        }
+        BuilderContext.install((RubyClass)contextClass);
+        return runtime.getTrue();
+    }
+
+    @JRubyMethod(name = "dispatch_serial", meta = true)
+    public static IRubyObject dispatchSerial(IRubyObject self) {
+        Ruby runtime = self.getRuntime();
+        return RubyFixnum.newFixnum(runtime, RuntimeResources.getResources(runtime).getDispatchSerial());
+    }
+
+    @JRubyMethod(name = "dispatch_changed", meta = true)
+    public static IRubyObject dispatchChanged(IRubyObject self) {
+        Ruby runtime = self.getRuntime();
+        RuntimeResources.getResources(runtime).dispatchChanged();
+        return runtime.getNil();
+    }
+
+    @JRubyMethod(name = "profiling=", required = 1, meta = true)
+    public static IRubyObject setProfiling(IRubyObject self, IRubyObject value) {
+        RuntimeResources.getResources(self.getRuntime()).setProfiling(value.isTrue());
+        return value;
+    }
+
+}
@@ -0,0 +1,237 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.beans.Introspector;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The metadata Cheri's builders need about a Java class, introspected once:
+ * bean property accessors, addXxxListener methods, public constructors and
+ * instance methods by arity, and public static constants. Instances are
+ * immutable, and independent of any runtime; see ClassInfoCache.
+ */
+public final class ClassInfo {
+
+    private static final Method[] NO_METHODS = new Method[0];
+    private static final Constructor[] NO_CONSTRUCTORS = new Constructor[0];
+
+    private final Class type;
+    // property name (as returned by Introspector.decapitalize) -> Method[]
+    private final Map setters = new HashMap();
+    // property name -> Method
+    private final Map getters = new HashMap();
+    private final Map isers = new HashMap();
+    private final String[] propertyNames;
+    private final Method[] listenerAdders;
+    // listener method name -> the addXxxListener method of its listener
+    private final Map listenerAddersByMethod = new HashMap();
+    // arity -> Constructor[]
+    private final Constructor[][] constructors;
+    // name + '#' + arity -> Method[]
+    private final Map methods = new HashMap();
+    // name -> Field
+    private final Map constants = new HashMap();
+    private final String[] constantNames;
+
+    ClassInfo(Class type) {
+        this.type = type;
+        Method[] publicMethods = type.getMethods();
+        TreeSet names = new TreeSet();
+        ArrayList adders = new ArrayList();
+        HashMap setterLists = new HashMap();
+        HashMap methodLists = new HashMap();
+        for (int i = 0; i < publicMethods.length; i++) {
+            Method m = publicMethods[i];
+            if (Modifier.isStatic(m.getModifiers())) continue;
+            String name = m.getName();
+            Class[] params = m.getParameterTypes();
+            addTo(methodLists, name + '#' + params.length, m);
+            if (params.length == 1) {
+                if (name.length() > 3 && name.startsWith("set")) {
+                    String prop = Introspector.decapitalize(name.substring(3));
+                    addTo(setterLists, prop, m);
+                    names.add(prop);
+                } else if (isListenerAdder(name, params[0])) {
+                    adders.add(m);
+                }
+            } else if (params.length == 0) {
+                Class rtype = m.getReturnType();
+                if (name.length() > 3 && name.startsWith("get") && rtype != Void.TYPE) {
+                    String prop = Introspector.decapitalize(name.substring(3));
+                    getters.put(prop, m);
+                    names.add(prop);
+                } else if (name.length() > 2 && name.startsWith("is") &&
+                        (rtype == Boolean.TYPE || rtype == Boolean.class)) {
+                    String prop = Introspector.decapitalize(name.substring(2));
+                    isers.put(prop, m);
+                    names.add(prop);
+                }
+            }
+        }
+        toArrays(setterLists, setters);
+        toArrays(methodLists, methods);
+        propertyNames = (String[])names.toArray(new String[names.size()]);
+        listenerAdders = (Method[])adders.toArray(new Method[adders.size()]);
+        for (int i = 0; i < listenerAdders.length; i++) {
+            Method[] lmethods = listenerAdders[i].getParameterTypes()[0].getMethods();
+            for (int j = 0; j < lmethods.length; j++) {
+                String name = lmethods[j].getName();
+                if (!listenerAddersByMethod.containsKey(name)) {
+                    listenerAddersByMethod.put(name, listenerAdders[i]);
+                }
+            }
+        }
+
+        Constructor[] ctors = type.getConstructors();
+        int maxArity = -1;
+        for (int i = 0; i < ctors.length; i++) {
+            maxArity = Math.max(maxArity, ctors[i].getParameterTypes().length);
+        }
+        constructors = new Constructor[maxArity + 1][];
+        for (int arity = 0; arity <= maxArity; arity++) {
+            ArrayList list = new ArrayList();
+            for (int i = 0; i < ctors.length; i++) {
+                if (ctors[i].getParameterTypes().length == arity) {
+                    list.add(ctors[i]);
+                }
+            }
+            constructors[arity] = (Constructor[])list.toArray(new Constructor[list.size()]);
+        }
+
+        Field[] fields = type.getFields();
+        for (int i = 0; i < fields.length; i++) {
+            int mod = fields[i].getModifiers();
+            if (Modifier.isStatic(mod) && Modifier.isFinal(mod)) {
+                constants.put(fields[i].getName(), fields[i]);
+            }
+        }
+        constantNames = (String[])constants.keySet().toArray(new String[constants.size()]);
+        Arrays.sort(constantNames);
+    }
+
+    // addXxxListener(XxxListener), as matched by Cheri's event handlers
+    private static boolean isListenerAdder(String name, Class param) {
+        return name.length() > 11 && name.startsWith("add") && name.endsWith("Listener") &&
+            param.getName().indexOf("Listener") > 0;
+    }
+
+    private static void addTo(Map lists, Object key, Object value) {
+        ArrayList list;
+        if ((list = (ArrayList)lists.get(key)) == null) {
+            lists.put(key, list = new ArrayList(2));
+        }
+        list.add(value);
+    }
+
+    private static void toArrays(Map lists, Map arrays) {
+        for (Iterator iter = lists.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry entry = (Map.Entry)iter.next();
+            ArrayList list = (ArrayList)entry.getValue();
+            arrays.put(entry.getKey(), list.toArray(new Method[list.size()]));
+        }
+    }
+
+    public Class getType() {
+        return type;
+    }
+
+    /**
+     * Returns the names of the bean properties with any of a setter, getter
+     * or is-er, in sorted order.
+     */
+    public String[] getPropertyNames() {
+        return (String[])propertyNames.clone();
+    }
+
+    public Method[] getSetters(String property) {
+        Method[] m;
+        return (m = (Method[])setters.get(property)) == null ? NO_METHODS : (Method[])m.clone();
+    }
+
+    public Method getSetter(String property) {
+        Method[] m;
+        return (m = (Method[])setters.get(property)) == null ? null : m[0];
+    }
+
+    public Method getGetter(String property) {
+        return (Method)getters.get(property);
+    }
+
+    public Method getIser(String property) {
+        return (Method)isers.get(property);
+    }
+
+    public Method[] getListenerAdders() {
+        return (Method[])listenerAdders.clone();
+    }
+
+    /**
+     * Returns the addXxxListener method whose listener type declares
+     * (or inherits) a method named listenerMethodName, or null.
+     */
+    public Method getListenerAdder(String listenerMethodName) {
+        return (Method)listenerAddersByMethod.get(listenerMethodName);
+    }
+
+    public Constructor[] getConstructors(int arity) {
+        if (arity < 0 || arity >= constructors.length) {
+            return NO_CONSTRUCTORS;
+        }
+        return (Constructor[])constructors[arity].clone();
+    }
+
+    /**
+     * Returns the public instance methods (declared or inherited) with the
+     * specified name and number of parameters.
+     */
+    public Method[] getMethods(String name, int arity) {
+        Method[] m;
+        return (m = (Method[])methods.get(name + '#' + arity)) == null ? NO_METHODS : (Method[])m.clone();
+    }
+
+    public Field getConstant(String name) {
+        return (Field)constants.get(name);
+    }
+
+    public String[] getConstantNames() {
+        return (String[])constantNames.clone();
+    }
+
+    public String toString() {
+        return "ClassInfo[" + type.getName() + "]";
+    }
+
+}
@@ -0,0 +1,131 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache of ClassInfo, safe for concurrent use; there is one
+ * per runtime (see RuntimeResources#getClassInfo), shared by all its
+ * builders. When full, the oldest entries are evicted first. The bound may
+ * be set with the system property <code>cheri.classinfo.max</code>.
+ */
+public final class ClassInfoCache {
+
+    public static final String MAX_SIZE_PROPERTY = "cheri.classinfo.max";
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    private final int maxSize;
+    private final ConcurrentHashMap infos;
+    // insertion order, for eviction
+    private final ConcurrentLinkedQueue order = new ConcurrentLinkedQueue();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ClassInfoCache() {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE).intValue());
+    }
+
+    public ClassInfoCache(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("invalid maxSize: " + maxSize);
+        this.maxSize = maxSize;
+        this.infos = new ConcurrentHashMap(Math.min(maxSize, 64));
+    }
+
+    public ClassInfo get(Class type) {
+        if (type == null) throw new NullPointerException("null 'type' arg");
+        ClassInfo info;
+        if ((info = (ClassInfo)infos.get(type)) != null) {
+            hits.incrementAndGet();
+            return info;
+        }
+        misses.incrementAndGet();
+        // two threads may both introspect a class; only one result is kept
+        ClassInfo existing;
+        if ((existing = (ClassInfo)infos.putIfAbsent(type, info = new ClassInfo(type))) != null) {
+            return existing;
+        }
+        order.add(type);
+        while (infos.size() > maxSize) {
+            Object oldest;
+            if ((oldest = order.poll()) == null) break;
+            if (infos.remove(oldest) != null) {
+                evictions.incrementAndGet();
+            }
+        }
+        return info;
+    }
+
+    public int size() {
+        return infos.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public void clear() {
+        infos.clear();
+        order.clear();
+    }
+
+    public void resetStats() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    /**
+     * Returns the stats as a map with (Ruby-friendly) snake_case keys.
+     */
+    public Map toMap() {
+        Map map = new HashMap();
+        map.put("size", new Integer(size()));
+        map.put("max_size", new Integer(maxSize));
+        map.put("hits", new Long(getHits()));
+        map.put("misses", new Long(getMisses()));
+        map.put("evictions", new Long(getEvictions()));
+        return map;
+    }
+
+}
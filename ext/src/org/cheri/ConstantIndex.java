@@ -0,0 +1,316 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An index, by name, of the constants (public static final fields)
+ * declared by a list of classes, which backs the constants
+ * sources of Cheri::AWT and Cheri::Swing (see Constants::Index in
+ * lib/cheri/java/builder/util.rb). A name may be declared by several
+ * classes; its entries are in the order of the classes.
+ * <p>
+ * The index is built on the first lookup, by reflection, so nothing is
+ * loaded until constants are actually resolved. If the system property
+ * <code>cheri.constants.index</code> names a directory, the index is read
+ * from a file there instead (one per class list and Java version), which
+ * spares loading the classes at all; the file is written when it's first
+ * built.
+ * <p>
+ * Nested classes may be named with <code>::</code> or <code>$</code>;
+ * declaring class names are returned in the latter (binary name) form,
+ * which Cheri::Java.get_class accepts.
+ * Field names starting with a lower case letter are indexed (as JRuby
+ * names their constants) with it in upper case: <code>Color.white</code>
+ * as <code>White</code>.
+ */
+public final class ConstantIndex {
+
+    public static final String INDEX_DIR_PROPERTY = "cheri.constants.index";
+
+    private static final int MAGIC = 0x43686572; // "Cher"
+    private static final int VERSION = 2;
+
+    private final String[] classNames;
+    private final ClassLoader loader;
+    // name -> Constant[]
+    private volatile Map index;
+
+    public ConstantIndex(String[] classNames, ClassLoader loader) {
+        if (classNames == null) throw new NullPointerException("null 'classNames' arg");
+        this.classNames = new String[classNames.length];
+        for (int i = 0; i < classNames.length; i++) {
+            this.classNames[i] = classNames[i].replace("::", "$");
+        }
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the constants with the specified name, or null if there are none.
+     */
+    public Constant[] get(String name) {
+        Map map;
+        if ((map = index) == null) {
+            map = load();
+        }
+        return (Constant[])map.get(name);
+    }
+
+    public int size() {
+        Map map;
+        if ((map = index) == null) {
+            map = load();
+        }
+        return map.size();
+    }
+
+    public String[] getClassNames() {
+        return (String[])classNames.clone();
+    }
+
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    private synchronized Map load() {
+        if (index != null) return index;
+        Map map = null;
+        File file = indexFile();
+        if (file != null && file.isFile()) {
+            try {
+                map = read(file);
+            } catch (IOException e) {
+                // unreadable (or stale); rebuilt below
+            }
+        }
+        if (map == null) {
+            map = build();
+            if (file != null) {
+                try {
+                    write(map, file);
+                } catch (IOException e) {
+                    // leave it to be built again next time
+                }
+            }
+        }
+        return index = map;
+    }
+
+    private Map build() {
+        Map lists = new HashMap();
+        for (int i = 0; i < classNames.length; i++) {
+            Class type;
+            try {
+                type = Class.forName(classNames[i], false, loader);
+            } catch (ClassNotFoundException e) {
+                continue;
+            } catch (LinkageError e) {
+                continue;
+            }
+            Field[] fields = type.getDeclaredFields();
+            for (int j = 0; j < fields.length; j++) {
+                int mod = fields[j].getModifiers();
+                // deprecated fields are kept, as whether a field is
+                // deprecated varies with the Java version
+                if (Modifier.isPublic(mod) && Modifier.isStatic(mod) && Modifier.isFinal(mod)) {
+                    String name = fields[j].getName();
+                    if (Character.isLowerCase(name.charAt(0))) {
+                        name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+                    }
+                    ArrayList list;
+                    if ((list = (ArrayList)lists.get(name)) == null) {
+                        lists.put(name, list = new ArrayList(2));
+                    }
+                    list.add(new Constant(fields[j].getType().getName(), classNames[i]));
+                }
+            }
+        }
+        Map map = new HashMap(lists.size() * 4 / 3 + 1);
+        for (Iterator iter = lists.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry entry = (Map.Entry)iter.next();
+            ArrayList list = (ArrayList)entry.getValue();
+            map.put(entry.getKey(), list.toArray(new Constant[list.size()]));
+        }
+        return map;
+    }
+
+    // the index file for this class list and Java version, or null if
+    // the property isn't set
+    private File indexFile() {
+        String dir;
+        if ((dir = System.getProperty(INDEX_DIR_PROPERTY)) == null || dir.length() == 0) {
+            return null;
+        }
+        int hash = Arrays.asList(classNames).hashCode() * 31 + javaVersion().hashCode();
+        return new File(dir, "constants-" + Integer.toHexString(hash) + ".idx");
+    }
+
+    private static String javaVersion() {
+        String version = System.getProperty("java.version");
+        return version == null ? "" : version;
+    }
+
+    /**
+     * Writes the index to file (as read when <code>cheri.constants.index</code>
+     * is set), building it first if need be.
+     */
+    public void save(File file) throws IOException {
+        Map map;
+        if ((map = index) == null) {
+            map = load();
+        }
+        write(map, file);
+    }
+
+    // class names (and types) are written once, and referred to by number
+    private void write(Map map, File file) throws IOException {
+        Map types = new HashMap();
+        ArrayList typeNames = new ArrayList();
+        Map decls = new HashMap();
+        for (int i = 0; i < classNames.length; i++) {
+            decls.put(classNames[i], new Integer(i));
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(javaVersion());
+            out.writeInt(classNames.length);
+            for (int i = 0; i < classNames.length; i++) {
+                out.writeUTF(classNames[i]);
+            }
+            for (Iterator iter = map.values().iterator(); iter.hasNext(); ) {
+                Constant[] consts = (Constant[])iter.next();
+                for (int i = 0; i < consts.length; i++) {
+                    if (!types.containsKey(consts[i].type)) {
+                        types.put(consts[i].type, new Integer(typeNames.size()));
+                        typeNames.add(consts[i].type);
+                    }
+                }
+            }
+            out.writeInt(typeNames.size());
+            for (int i = 0; i < typeNames.size(); i++) {
+                out.writeUTF((String)typeNames.get(i));
+            }
+            out.writeInt(map.size());
+            for (Iterator iter = map.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry entry = (Map.Entry)iter.next();
+                Constant[] consts = (Constant[])entry.getValue();
+                out.writeUTF((String)entry.getKey());
+                out.writeInt(consts.length);
+                for (int i = 0; i < consts.length; i++) {
+                    out.writeInt(((Integer)types.get(consts[i].type)).intValue());
+                    out.writeInt(((Integer)decls.get(consts[i].declaringClass)).intValue());
+                }
+            }
+        } finally {
+            out.close();
+        }
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                tmp.delete();
+                throw new IOException("can't rename " + tmp + " to " + file);
+            }
+        }
+    }
+
+    // returns null if the file is for another class list or Java version
+    private Map read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION ||
+                    !javaVersion().equals(in.readUTF()) || in.readInt() != classNames.length) {
+                return null;
+            }
+            for (int i = 0; i < classNames.length; i++) {
+                if (!classNames[i].equals(in.readUTF())) return null;
+            }
+            String[] typeNames = new String[in.readInt()];
+            for (int i = 0; i < typeNames.length; i++) {
+                typeNames[i] = in.readUTF();
+            }
+            int size = in.readInt();
+            Map map = new HashMap(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                String name = in.readUTF();
+                Constant[] consts = new Constant[in.readInt()];
+                for (int j = 0; j < consts.length; j++) {
+                    consts[j] = new Constant(typeNames[in.readInt()], classNames[in.readInt()]);
+                }
+                map.put(name, consts);
+            }
+            return map;
+        } catch (RuntimeException e) {
+            // bad type or class number
+            throw new IOException("invalid constants index: " + file);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * A constant's type (as returned by Class#getName) and declaring class.
+     */
+    public static final class Constant {
+        private final String type;
+        private final String declaringClass;
+
+        Constant(String type, String declaringClass) {
+            this.type = type;
+            this.declaringClass = declaringClass;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getDeclaringClass() {
+            return declaringClass;
+        }
+
+        public String toString() {
+            return declaringClass + " (" + type + ")";
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jruby.Ruby;
+import org.jruby.RubyClass;
+import org.jruby.RubyFixnum;
+import org.jruby.RubyModule;
+import org.jruby.RubyObject;
+import org.jruby.RubyThread;
+import org.jruby.anno.JRubyMethod;
+import org.jruby.runtime.ObjectAllocator;
+import org.jruby.runtime.ThreadContext;
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Native implementation of Cheri::Builder::ContextMap, which holds the
+ * Context of each thread for an InstanceContext (see InstanceContext#current).
+ * <p>
+ * Lookups take no lock. Contexts are held in a ConcurrentHashMap keyed
+ * weakly by Ruby thread, so an entry goes once its thread has ended and been
+ * collected (stale entries are expunged as new ones are added). The map never
+ * holds more than the threads that have used it and are still reachable,
+ * however many short-lived (or virtual) threads come and go. The most
+ * recently added entry is checked first, as an instance is most often used
+ * from just one thread.
+ */
+public class ContextMap extends RubyObject {
+
+    private static final ObjectAllocator ALLOCATOR = new ObjectAllocator() {
+        public IRubyObject allocate(Ruby runtime, RubyClass klass) {
+            return new ContextMap(runtime, klass);
+        }
+    };
+
+    static RubyClass createContextMapClass(Ruby runtime, RubyModule builderModule) {
+        RubyClass contextMapClass = builderModule.defineClassUnder("ContextMap", runtime.getObject(), ALLOCATOR);
+        contextMapClass.defineAnnotatedMethods(ContextMap.class);
+        return contextMapClass;
+    }
+
+    private final ConcurrentHashMap contexts = new ConcurrentHashMap();
+    private final ReferenceQueue queue = new ReferenceQueue();
+    private volatile Entry last;
+
+    public ContextMap(Ruby runtime, RubyClass metaClass) {
+        super(runtime, metaClass);
+    }
+
+    @JRubyMethod(name = "current")
+    public IRubyObject current(ThreadContext context) {
+        RubyThread thread = context.getThread();
+        Entry entry;
+        if (((entry = last) != null && entry.get() == thread) ||
+                (entry = (Entry)contexts.get(new Probe(thread))) != null) {
+            return entry.context;
+        }
+        return context.getRuntime().getNil();
+    }
+
+    @JRubyMethod(name = "current=", required = 1)
+    public IRubyObject set_current(ThreadContext context, IRubyObject ctx) {
+        expungeStaleEntries();
+        if (ctx.isNil()) {
+            // released (see InstanceContext#release)
+            RubyThread thread = context.getThread();
+            Entry entry;
+            if ((entry = last) != null && entry.get() == thread) {
+                last = null;
+            }
+            contexts.remove(new Probe(thread));
+            return ctx;
+        }
+        Entry entry = new Entry(context.getThread(), ctx, queue);
+        // if the thread has an entry, its key stays, but it's replaced as
+        // the value, and this one never matches when it's expunged
+        contexts.put(entry, entry);
+        last = entry;
+        return ctx;
+    }
+
+    @JRubyMethod(name = "size")
+    public IRubyObject size(ThreadContext context) {
+        expungeStaleEntries();
+        return RubyFixnum.newFixnum(context.getRuntime(), contexts.size());
+    }
+
+    private void expungeStaleEntries() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            contexts.remove(stale);
+        }
+        Entry entry;
+        if ((entry = last) != null && entry.get() == null) {
+            last = null;
+        }
+    }
+
+    // keys and values are the same Entry objects; lookups use a Probe.
+    // both hash (and compare) on the identity of the thread.
+    private static final class Entry extends WeakReference {
+        final int hash;
+        final IRubyObject context;
+
+        Entry(RubyThread thread, IRubyObject context, ReferenceQueue queue) {
+            super(thread, queue);
+            this.hash = System.identityHashCode(thread);
+            this.context = context;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            Object thread;
+            if ((thread = get()) == null) return false;
+            if (obj instanceof Probe) return ((Probe)obj).thread == thread;
+            return obj instanceof Entry && ((Entry)obj).get() == thread;
+        }
+    }
+
+    private static final class Probe {
+        final RubyThread thread;
+
+        Probe(RubyThread thread) {
+            this.thread = thread;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(thread);
+        }
+
+        public boolean equals(Object obj) {
+            if (obj instanceof Entry) return ((Entry)obj).get() == thread;
+            return obj instanceof Probe && ((Probe)obj).thread == thread;
+        }
+    }
+
+}
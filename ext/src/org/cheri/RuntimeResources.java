@@ -25,32 +25,105 @@
 
 package org.cheri;
 
+import org.cheri.compat.JRubyVersionAdapter;
+import org.cheri.compat.SymbolStringCache;
+import org.cheri.swing.layout.GridTableMetrics;
 import org.jruby.Ruby;
+import org.jruby.RubyArray;
 import org.jruby.RubyModule;
+import org.jruby.javasupport.JavaClass;
 import org.jruby.javasupport.JavaSupport;
 import org.jruby.runtime.builtin.IRubyObject;
 
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class RuntimeResources {
 
-    private static final Map RUNTIME_RESOURCES = Collections.synchronizedMap(new WeakHashMap());
+    // the resources of each runtime, as a copy-on-write array (there are
+    // rarely more than a few runtimes, so a scan beats hashing), read
+    // without locking. Where the adapter supports it, a runtime owns its
+    // resources through a teardown hook, so that the entries need only be
+    // weak: they clear when the runtime is collected, and are removed when
+    // it is torn down.
+    private static volatile Entry[] entries = new Entry[0];
     
     public static RuntimeResources getResources(Ruby runtime) {
         if (runtime == null) throw new NullPointerException("null 'runtime' arg");
         RuntimeResources rr;
-        synchronized(RUNTIME_RESOURCES) {
-            if ((rr = (RuntimeResources)RUNTIME_RESOURCES.get(runtime)) == null) {
-                rr = new RuntimeResources(runtime);
-                RUNTIME_RESOURCES.put(runtime, rr);
-            }
+        if ((rr = find(entries, runtime)) == null) {
+            rr = addResources(runtime);
         }
         return rr;
     }
 
+    private static RuntimeResources find(Entry[] entries, Ruby runtime) {
+        for (int i = entries.length; --i >= 0; ) {
+            RuntimeResources rr;
+            if ((rr = (RuntimeResources)entries[i].get()) != null && rr.runtime == runtime) {
+                return rr;
+            }
+        }
+        return null;
+    }
+
+    private static synchronized RuntimeResources addResources(Ruby runtime) {
+        RuntimeResources rr;
+        if ((rr = find(entries, runtime)) != null) {
+            return rr;
+        }
+        final RuntimeResources newResources = new RuntimeResources(runtime);
+        boolean owned = JRubyVersionAdapter.getAdapter().addTeardownHook(runtime, new Runnable() {
+            public void run() {
+                removeResources(newResources);
+            }
+        });
+        replaceEntries(null, new Entry(newResources, owned));
+        return newResources;
+    }
+
+    private static synchronized void removeResources(RuntimeResources rr) {
+        replaceEntries(rr, null);
+        rr.tornDown();
+    }
+
+    // copy the live entries, less that for removed, plus added
+    private static void replaceEntries(RuntimeResources removed, Entry added) {
+        Entry[] oldEntries = entries;
+        Entry[] newEntries = new Entry[oldEntries.length + 1];
+        int n = 0;
+        for (int i = 0; i < oldEntries.length; i++) {
+            Object rr;
+            if ((rr = oldEntries[i].get()) != null && rr != removed) {
+                newEntries[n++] = oldEntries[i];
+            }
+        }
+        if (added != null) {
+            newEntries[n++] = added;
+        }
+        if (n < newEntries.length) {
+            Entry[] trimmed = new Entry[n];
+            System.arraycopy(newEntries, 0, trimmed, 0, n);
+            newEntries = trimmed;
+        }
+        entries = newEntries;
+    }
+
+    private static final class Entry extends WeakReference {
+        // set only if the runtime can't own its resources
+        final RuntimeResources strong;
+
+        Entry(RuntimeResources rr, boolean owned) {
+            super(rr);
+            this.strong = owned ? null : rr;
+        }
+    }
+
     public static RuntimeResources getResources(IRubyObject any) {
         if (any == null) throw new NullPointerException("null 'any' arg");
         return getResources(any.getRuntime());
@@ -59,7 +132,12 @@ public final class RuntimeResources {
     private final Ruby runtime;
     private final JavaSupport javaSupport;
     private final Map namedResources = Collections.synchronizedMap(new HashMap());
-    private final Map classInfo = new HashMap(128);
+    private final ClassInfoCache classInfo = new ClassInfoCache();
+    private final ConcurrentHashMap symbolCaches = new ConcurrentHashMap();
+    private final SymbolStringCache symbolStrings = new SymbolStringCache();
+    private GridTableMetrics gridTableTotals;
+    private volatile int dispatchSerial;
+    private volatile boolean profiling;
     private RubyModule cheriModule;
     private RubyModule cheriBuilderModule;
     private RubyModule javaModule; // Cheri::Java, not top-level Java
@@ -174,13 +252,136 @@ public final class RuntimeResources {
     }
     
     public Class loadJavaClass(final String name) {
-        return javaSupport.loadJavaClass(name);
+        return JRubyVersionAdapter.getAdapter().loadJavaClass(runtime, name);
+    }
+
+    public ClassInfo getClassInfo(Class type) {
+        return classInfo.get(type);
     }
 
-    public Map getClassInfo() {
+    public ClassInfoCache getClassInfoCache() {
         return classInfo;
     }
 
+    /**
+     * Returns a new ConstantIndex of the specified classes, loaded (when the
+     * index is built) through the runtime's class loader.
+     */
+    public ConstantIndex newConstantIndex(String[] classNames) {
+        return new ConstantIndex(classNames, runtime.getJRubyClassLoader());
+    }
+
+    /**
+     * Returns the parameter types of the public constructors of type with
+     * the specified arity, as an array of arrays of JavaClass (as returned
+     * by JavaConstructor#argument_types). The arrays are new on each call,
+     * so the caller may modify them.
+     */
+    public RubyArray getConstructorArgumentTypes(Class type, int arity) {
+        Constructor[] ctors = classInfo.get(type).getConstructors(arity);
+        RubyArray types = runtime.newArray(ctors.length);
+        for (int i = 0; i < ctors.length; i++) {
+            types.append(JavaClass.getRubyArray(runtime, ctors[i].getParameterTypes()));
+        }
+        return types;
+    }
+
+    /**
+     * As for getConstructorArgumentTypes, for the public instance methods
+     * of type with the specified name and arity.
+     */
+    public RubyArray getMethodArgumentTypes(Class type, String name, int arity) {
+        Method[] methods = classInfo.get(type).getMethods(name, arity);
+        RubyArray types = runtime.newArray(methods.length);
+        for (int i = 0; i < methods.length; i++) {
+            types.append(JavaClass.getRubyArray(runtime, methods[i].getParameterTypes()));
+        }
+        return types;
+    }
+
+    /**
+     * Returns the named symbol cache, creating it if necessary. Symbol caches
+     * are meant to be keyed by RubySymbol, so that data derived from a
+     * symbol's name can be looked up without converting the symbol to a
+     * String. They're ConcurrentHashMaps, so lookups don't lock; RubySymbol's
+     * equals is identity (symbols being unique within a runtime) and its
+     * hashCode the symbol id, so they compare as an identity map would.
+     */
+    public Map getSymbolCache(String name) {
+        Map cache;
+        if ((cache = (Map)symbolCaches.get(name)) == null) {
+            Map created = new ConcurrentHashMap();
+            if ((cache = (Map)symbolCaches.putIfAbsent(name, created)) == null) {
+                cache = created;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cache of canonical strings for RubyStrings used as
+     * symbols; normally reached via JRubyVersionAdapter.
+     */
+    public SymbolStringCache getSymbolStringCache() {
+        return symbolStrings;
+    }
+
+    /**
+     * Returns the builder dispatch serial number. Contexts cache builder
+     * lookups (see BuilderContext#findBuilder) for as long as it is unchanged.
+     */
+    public int getDispatchSerial() {
+        return dispatchSerial;
+    }
+
+    /**
+     * Invalidates the builder dispatch caches of all contexts; called (as
+     * Cheri::Builder.dispatch_changed) when a builder module is included or
+     * auto-enabled.
+     */
+    public synchronized void dispatchChanged() {
+        dispatchSerial++;
+    }
+
+    /**
+     * Returns true while the builder profiler runs in this runtime, during
+     * which BuilderContext calls bld, csm and ctc as Ruby methods.
+     */
+    public boolean isProfiling() {
+        return profiling;
+    }
+
+    // set by Cheri::Builder.profiling=
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    /**
+     * Returns the GridTable metrics totals for this runtime, to which the
+     * metrics of the tables it builds are added.
+     */
+    public synchronized GridTableMetrics getGridTableTotals() {
+        if (gridTableTotals == null) {
+            gridTableTotals = new GridTableMetrics();
+        }
+        return gridTableTotals;
+    }
+
+    /**
+     * Returns a snapshot of the GridTable metrics totals for this runtime (see
+     * GridTableMetrics#toMap); all zero unless metrics have been enabled.
+     */
+    public Map getGridTableMetrics() {
+        return getGridTableTotals().toMap();
+    }
+
+    // called when the runtime is torn down
+    private synchronized void tornDown() {
+        if (gridTableTotals != null) {
+            gridTableTotals.unregister();
+        }
+    }
+
     public Object get(String name) {
         return namedResources.get(name);
     }
@@ -30,6 +30,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.InvocationTargetException;
 
 import org.cheri.Cheri;
+import org.cheri.RuntimeResources;
 
 // if even these aren't defined, our version checks will be useless
 import org.jruby.Ruby;
@@ -48,6 +49,17 @@ public abstract class JRubyVersionAdapter {
     public abstract Object getBlockAsProc(Ruby runtime, Object block);
     
     public abstract boolean isKindOf(Ruby runtime, Object self, Object module);
+    
+    public abstract Class loadJavaClass(Ruby runtime, String name);
+    
+    // runs hook when the runtime is torn down; the runtime holds a (strong)
+    // reference to hook until then. returns false if not supported.
+    public abstract boolean addTeardownHook(Ruby runtime, Runnable hook);
+
+    // the runtime's cache of strings for RubyStrings used as symbols
+    public SymbolStringCache getSymbolStringCache(Ruby runtime) {
+        return RuntimeResources.getResources(runtime).getSymbolStringCache();
+    }
 
 
     // we should be able to safely keep a static reference to the
@@ -86,27 +98,60 @@ public abstract class JRubyVersionAdapter {
             } else if (version.startsWith("1.")) {
                 // other 1.x, we'll hope this one still works
                 adapterName = "org.cheri.compat.impl.JRuby_1_1_0_Adapter";
+            } else if (version.startsWith("9.") || isLaterVersion(version)) {
+                // 9.x and on; requires Java 7
+                adapterName = "org.cheri.compat.impl.JRuby_9_Adapter";
             } else {
-                // no way we'll work with 2.0 or later, but we'll
-                // plug in our latest and cross our fingers anyway
+                // nothing between 1.7 and 9.0 was released, but just in case
                 System.err.println("Warning: Cheri version " + Cheri.VERSION + 
                         " has no suitable adapter for JRuby version " + version);
                 adapterName = "org.cheri.compat.impl.JRuby_1_1_0_Adapter";
             }
-            adapter = (JRubyVersionAdapter)Class.forName(adapterName).newInstance();
+            adapter = newAdapter(adapterName);
+            if (adapter == null && !adapterName.endsWith("JRuby_1_1_0_Adapter")) {
+                // pre-Java 7, or a JRuby we can't bind to; try our luck
+                adapter = newAdapter("org.cheri.compat.impl.JRuby_1_1_0_Adapter");
+            }
         } catch (IllegalAccessException e) {
         } catch (NoSuchFieldException e) {
         } catch (ClassNotFoundException e) {
-        } catch (InstantiationException e) {
         }
         _adapter = adapter;
     }
     
+    private static JRubyVersionAdapter newAdapter(String adapterName) {
+        try {
+            return (JRubyVersionAdapter)Class.forName(adapterName).newInstance();
+        } catch (LinkageError e) {
+            // includes failure to bind (ExceptionInInitializerError)
+        } catch (IllegalAccessException e) {
+        } catch (ClassNotFoundException e) {
+        } catch (InstantiationException e) {
+        }
+        return null;
+    }
+
+    // versions after 9.x, whenever they arrive
+    private static boolean isLaterVersion(String version) {
+        int dot;
+        if ((dot = version.indexOf('.')) <= 0) return false;
+        try {
+            return Integer.parseInt(version.substring(0, dot)) > 9;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Ruby#newTypeError(String), looked up on first use
+    private static Method newTypeError;
+
     public static RaiseException newCheriVersionError(Ruby runtime) {
         String msg = "Incompatible JRuby version for Cheri version " + Cheri.VERSION;
         try {
-            Class c = runtime.getClass();
-            Method m = c.getMethod("newTypeError", new Class[] { String.class });
+            Method m;
+            if ((m = newTypeError) == null) {
+                newTypeError = m = Ruby.class.getMethod("newTypeError", new Class[] { String.class });
+            }
             return (RaiseException)m.invoke(runtime, new Object[] { msg });
         } catch (NoSuchMethodException e) {
             throw new Cheri.CheriVersionException();
@@ -0,0 +1,127 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.compat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jruby.RubyString;
+import org.jruby.util.ByteList;
+
+/**
+ * Canonical (interned) Java strings for the content of RubyStrings used as
+ * symbols (hash keys, property and method names), so that converting one
+ * costs a lookup rather than a decode and a trip to the JVM's string table.
+ * There is one per runtime, safe for concurrent use; see
+ * JRubyVersionAdapter#getSymbolStringCache. RubySymbols don't need it, as
+ * their strings are already canonical.
+ * <p>
+ * Once the cache holds <code>cheri.symbolstrings.max</code> strings (4096
+ * by default), further strings are converted but not added.
+ */
+public final class SymbolStringCache {
+
+    public static final String MAX_SIZE_PROPERTY = "cheri.symbolstrings.max";
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    // ByteList -> String; ByteList compares by content
+    private final ConcurrentHashMap strings = new ConcurrentHashMap();
+    private final int maxSize;
+    // not synchronized, so (slightly) approximate under concurrent use
+    private long hits;
+    private long misses;
+
+    public SymbolStringCache() {
+        this(Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE).intValue());
+    }
+
+    public SymbolStringCache(int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException("invalid maxSize: " + maxSize);
+        this.maxSize = maxSize;
+    }
+
+    public String get(RubyString str) {
+        ByteList bytes = str.getByteList();
+        String s;
+        if ((s = (String)strings.get(bytes)) != null) {
+            hits++;
+            return s;
+        }
+        misses++;
+        s = str.toString().intern();
+        if (strings.size() < maxSize) {
+            // keyed on a copy, as the RubyString may be modified
+            strings.putIfAbsent(bytes.dup(), s);
+        }
+        return s;
+    }
+
+    public int size() {
+        return strings.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns hits / (hits + misses), or 0.0 if there have been no lookups.
+     */
+    public double getHitRate() {
+        long h = hits;
+        long total = h + misses;
+        return total == 0 ? 0.0 : (double)h / total;
+    }
+
+    public void clear() {
+        strings.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Returns the stats as a map with (Ruby-friendly) snake_case keys.
+     */
+    public Map toMap() {
+        Map map = new HashMap();
+        map.put("size", new Integer(size()));
+        map.put("max_size", new Integer(maxSize));
+        map.put("hits", new Long(getHits()));
+        map.put("misses", new Long(getMisses()));
+        map.put("hit_rate", new Double(getHitRate()));
+        return map;
+    }
+
+}
@@ -43,6 +43,7 @@ public class JRuby_1_0_0_Adapter extends JRubyVersionAdapter {
         if (obj instanceof RubySymbol) {
             return ((RubySymbol)obj).asSymbol();
         } else if (obj instanceof RubyString) {
+            // ByteList caches its String, so no need for the string cache
             return ((RubyString)obj).toString();
         }
         // FIXME: non-standard TypeError message
@@ -53,7 +54,7 @@ public class JRuby_1_0_0_Adapter extends JRubyVersionAdapter {
         if (obj instanceof RubySymbol) {
             return ((RubySymbol)obj).asSymbol().intern();
         } else if (obj instanceof RubyString) {
-            return ((RubyString)obj).toString().intern();
+            return getSymbolStringCache(runtime).get((RubyString)obj);
         }
         // FIXME: non-standard TypeError message
         throw runtime.newTypeError("not a symbol: " + obj);
@@ -87,6 +88,15 @@ public class JRuby_1_0_0_Adapter extends JRubyVersionAdapter {
         throw newCheriVersionError(runtime);
     }
 
+    public Class loadJavaClass(Ruby runtime, String name) {
+        return runtime.getJavaSupport().loadJavaClass(name);
+    }
+
+    public boolean addTeardownHook(Ruby runtime, Runnable hook) {
+        // no internal finalizers before 1.1
+        return false;
+    }
+
     
 
 }
@@ -27,6 +27,7 @@ package org.cheri.compat.impl;
 
 import org.cheri.compat.JRubyVersionAdapter;
 
+import org.jruby.Finalizable;
 import org.jruby.Ruby;
 import org.jruby.RubyModule;
 import org.jruby.RubyString;
@@ -44,6 +45,7 @@ public class JRuby_1_1_0_Adapter extends JRubyVersionAdapter {
         if (obj instanceof RubySymbol) {
             return ((RubySymbol)obj).asJavaString();
         } else if (obj instanceof RubyString) {
+            // ByteList caches its String, so no need for the string cache
             return ((RubyString)obj).toString();
         }
         // FIXME: non-standard TypeError message
@@ -54,7 +56,7 @@ public class JRuby_1_1_0_Adapter extends JRubyVersionAdapter {
         if (obj instanceof RubySymbol) {
             return ((RubySymbol)obj).asJavaString();
         } else if (obj instanceof RubyString) {
-            return ((RubyString)obj).toString().intern();
+            return getSymbolStringCache(runtime).get((RubyString)obj);
         }
         // FIXME: non-standard TypeError message
         throw runtime.newTypeError("not a symbol: " + obj);
@@ -92,6 +94,21 @@ public class JRuby_1_1_0_Adapter extends JRubyVersionAdapter {
         throw newCheriVersionError(runtime);
     }
 
+    public Class loadJavaClass(Ruby runtime, String name) {
+        // loadJavaClass is private as of 1.1
+        return runtime.getJavaSupport().loadJavaClassVerbose(name);
+    }
+
+    public boolean addTeardownHook(Ruby runtime, final Runnable hook) {
+        // internal finalizers are run by Ruby#tearDown
+        runtime.addInternalFinalizer(new Finalizable() {
+            public void finalize() {
+                hook.run();
+            }
+        });
+        return true;
+    }
+
     
 
 }
@@ -0,0 +1,234 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.GridBagConstraints;
+import java.awt.Insets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.jruby.RubyArray;
+import org.jruby.RubyHash;
+import org.jruby.runtime.builtin.IRubyObject;
+
+/**
+ * Caches compiled GridBagConstraints templates, keyed on the content of the
+ * constraints hash and of the defaults it is applied over. The same hash
+ * literal (<code>:i=>6, :wy=>0.01</code>, etc.) typically repeats many times
+ * in a form, so after the first use each one costs a lookup and a clone,
+ * rather than a full symbol/value conversion pass.
+ * <p>
+ * Not thread-safe; like the GridTable that owns it, it is expected to be
+ * used only on the thread building the table (normally the EDT).
+ */
+final class ConstraintCache {
+
+    // templates are dropped wholesale once we reach this; a form that
+    // genuinely uses more distinct constraint sets than this isn't going
+    // to benefit from caching anyway.
+    private static final int MAX_ENTRIES = 512;
+
+    private final Map templates = new HashMap(64);
+    private final Key probe = new Key();
+    private long hits;
+    private long misses;
+    // set by GridTable when metrics are on
+    GridTableMetrics metrics;
+
+    GridBagConstraints newConstraints(GridBagConstraints defaults, RubyHash hash) {
+        Key probe = this.probe;
+        probe.set(defaults, hash);
+        GridBagConstraints template;
+        if ((template = (GridBagConstraints)templates.get(probe)) != null) {
+            hits++;
+        } else {
+            misses++;
+            template = (GridBagConstraints)defaults.clone();
+            // gridy isn't part of the key (it changes with every row), so mark
+            // it; if the hash doesn't set it, we'll take it from the defaults.
+            template.gridy = GridTable.NOT_AN_INT;
+            GridTable.setHashedValues(template, hash, metrics);
+            if (templates.size() >= MAX_ENTRIES) {
+                templates.clear();
+            }
+            templates.put(probe.copy(), template);
+        }
+        GridBagConstraints c = (GridBagConstraints)template.clone();
+        if (c.gridy == GridTable.NOT_AN_INT) {
+            c.gridy = defaults.gridy;
+        }
+        return c;
+    }
+
+    long getHits() {
+        return hits;
+    }
+
+    long getMisses() {
+        return misses;
+    }
+
+    int size() {
+        return templates.size();
+    }
+
+    void clear() {
+        templates.clear();
+        hits = 0;
+        misses = 0;
+    }
+
+    private static final class Key {
+        GridBagConstraints defaults;
+        Object[] entries = new Object[16];
+        int length;
+        int hash;
+
+        // (re)load a probe key. the probe is reused, so a hit allocates
+        // nothing beyond what RubyHash's entry iterator does.
+        void set(GridBagConstraints defaults, RubyHash rhash) {
+            this.defaults = defaults;
+            int len = rhash.size() << 1;
+            Object[] entries;
+            if ((entries = this.entries).length < len) {
+                entries = this.entries = new Object[len];
+            }
+            int h = defaultsHash(defaults);
+            int i = 0;
+            for (Iterator iter = rhash.entrySet().iterator(); iter.hasNext() && i < len; ) {
+                Map.Entry entry = (Map.Entry)iter.next();
+                Object key = entry.getKey();
+                Object value = entry.getValue();
+                if (value instanceof RubyArray) {
+                    // arrays are mutable, so key on their content
+                    value = ((RubyArray)value).toArray();
+                }
+                entries[i++] = key;
+                entries[i++] = value;
+                h = h * 31 + valueHash(key);
+                h = h * 31 + valueHash(value);
+            }
+            this.length = i;
+            this.hash = h;
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.defaults = (GridBagConstraints)defaults.clone();
+            key.entries = new Object[length];
+            System.arraycopy(entries, 0, key.entries, 0, length);
+            key.length = length;
+            key.hash = hash;
+            return key;
+        }
+
+        public int hashCode() {
+            return hash;
+        }
+
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key)obj;
+            if (hash != other.hash || length != other.length) return false;
+            Object[] a = entries;
+            Object[] b = other.entries;
+            for (int i = length; --i >= 0; ) {
+                if (!valueEquals(a[i], b[i])) return false;
+            }
+            return defaultsEqual(defaults, other.defaults);
+        }
+
+        // gridy is deliberately excluded (see newConstraints)
+        private static int defaultsHash(GridBagConstraints c) {
+            int h = c.gridx;
+            h = h * 31 + c.gridwidth;
+            h = h * 31 + c.gridheight;
+            h = h * 31 + c.anchor;
+            h = h * 31 + c.fill;
+            h = h * 31 + c.ipadx;
+            h = h * 31 + c.ipady;
+            long bits = Double.doubleToLongBits(c.weightx) * 31 + Double.doubleToLongBits(c.weighty);
+            h = h * 31 + (int)(bits ^ (bits >>> 32));
+            Insets in;
+            if ((in = c.insets) != null) {
+                h = h * 31 + in.hashCode();
+            }
+            return h;
+        }
+
+        private static boolean defaultsEqual(GridBagConstraints a, GridBagConstraints b) {
+            if (a == b) return true;
+            return a.gridx == b.gridx &&
+                a.gridwidth == b.gridwidth &&
+                a.gridheight == b.gridheight &&
+                a.anchor == b.anchor &&
+                a.fill == b.fill &&
+                a.ipadx == b.ipadx &&
+                a.ipady == b.ipady &&
+                a.weightx == b.weightx &&
+                a.weighty == b.weighty &&
+                (a.insets == null ? b.insets == null : a.insets.equals(b.insets));
+        }
+
+        private static int valueHash(Object value) {
+            if (value == null) {
+                return 0;
+            } else if (value instanceof IRubyObject) {
+                // symbols, mostly; these are unique per runtime
+                return System.identityHashCode(value);
+            } else if (value instanceof Object[]) {
+                Object[] values = (Object[])value;
+                int h = 1;
+                for (int i = 0; i < values.length; i++) {
+                    h = h * 31 + valueHash(values[i]);
+                }
+                return h;
+            }
+            return value.hashCode();
+        }
+
+        private static boolean valueEquals(Object a, Object b) {
+            if (a == b) {
+                return true;
+            } else if (a == null || b == null || a instanceof IRubyObject) {
+                return false;
+            } else if (a instanceof Object[]) {
+                if (!(b instanceof Object[])) return false;
+                Object[] aa = (Object[])a;
+                Object[] ba = (Object[])b;
+                if (aa.length != ba.length) return false;
+                for (int i = aa.length; --i >= 0; ) {
+                    if (!valueEquals(aa[i], ba[i])) return false;
+                }
+                return true;
+            }
+            return a.equals(b);
+        }
+    }
+
+}
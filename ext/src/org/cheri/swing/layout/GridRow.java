@@ -29,24 +29,90 @@ import java.awt.Component;
 import java.util.ArrayList;
 import java.util.List;
 
-
+/**
+ * The cells (components and their constraints) of one GridTable row, held
+ * in parallel arrays. A GridRow is only read when it is passed to
+ * GridTable#addRow (or insertRow/replaceRow), so one instance may be
+ * filled, added, reset and filled again; see GridTable#getSharedRow.
+ */
 public class GridRow {
 	
-	ArrayList cells = new ArrayList();
+	private static final int INITIAL_CAPACITY = 8;
+	
+	Component[] comps;
+	Object[] constraints;
+	int count;
 	Object defaultConstraints;
 	
-	public GridRow() {}
+	public GridRow() {
+		comps = new Component[INITIAL_CAPACITY];
+		constraints = new Object[INITIAL_CAPACITY];
+	}
 		
 	public GridRow(Object defaultConstraints) {
+		this();
 		this.defaultConstraints = defaultConstraints;
 	}
 	
 	public void add(Component comp) {
-		cells.add(new GridCell(comp));
+		add(comp, null);
 	}
 	
 	public void add(Component comp, Object constraints) {
-		cells.add(new GridCell(comp, constraints));
+		int n;
+		if ((n = count) == comps.length) {
+			grow(n << 1);
+		}
+		comps[n] = comp;
+		this.constraints[n] = constraints;
+		count = n + 1;
+	}
+	
+	private void grow(int capacity) {
+		Component[] newComps = new Component[capacity];
+		Object[] newConstraints = new Object[capacity];
+		System.arraycopy(comps, 0, newComps, 0, count);
+		System.arraycopy(constraints, 0, newConstraints, 0, count);
+		comps = newComps;
+		constraints = newConstraints;
+	}
+	
+	/**
+	 * Empties the row (cells and default constraints) for reuse. The arrays
+	 * are kept, so refilling a row of similar width allocates nothing.
+	 */
+	public void reset() {
+		for (int i = count; --i >= 0; ) {
+			comps[i] = null;
+			constraints[i] = null;
+		}
+		count = 0;
+		defaultConstraints = null;
+	}
+	
+	public int size() {
+		return count;
+	}
+	
+	public Component getComponent(int index) {
+		checkIndex(index);
+		return comps[index];
+	}
+	
+	public Object getConstraints(int index) {
+		checkIndex(index);
+		return constraints[index];
+	}
+	
+	public void setConstraints(int index, Object constraints) {
+		checkIndex(index);
+		this.constraints[index] = constraints;
+	}
+	
+	private void checkIndex(int index) {
+		if (index < 0 || index >= count) {
+			throw new IndexOutOfBoundsException("GridRow: cell index: " + index + ", cell count: " + count);
+		}
 	}
 	
 	public Object getDefaultConstraints() {
@@ -57,7 +123,15 @@ public class GridRow {
 		this.defaultConstraints = defaultConstraints;
 	}
 	
+	/**
+	 * Returns a snapshot of the cells. Provided for compatibility; the
+	 * indexed accessors don't allocate.
+	 */
 	public List getCells() {
+		ArrayList cells = new ArrayList(count);
+		for (int i = 0; i < count; i++) {
+			cells.add(new GridCell(comps[i], constraints[i]));
+		}
 		return cells;
 	}
 	
@@ -29,14 +29,17 @@ import java.awt.Component;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
+import java.awt.LayoutManager2;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import javax.swing.JPanel;
 
+import org.cheri.RuntimeResources;
 import org.cheri.compat.JRubyVersionAdapter;
 
 import org.jruby.Ruby;
@@ -46,7 +49,7 @@ import org.jruby.RubySymbol;
 
 public class GridTable extends JPanel {
 
-    private static final int NOT_AN_INT = Integer.MIN_VALUE;
+    static final int NOT_AN_INT = Integer.MIN_VALUE;
     private static final double NOT_A_DOUBLE = Double.MIN_VALUE;
 
     private static final int F_GRIDX       = 1;
@@ -103,6 +106,9 @@ public class GridTable extends JPanel {
 
 
     private static final Map SYMS = new HashMap(128,0.5f);
+    
+    // name of our RuntimeResources symbol cache (RubySymbol -> SymbolEntry)
+    private static final String SYMBOL_CACHE = "org.cheri.swing.layout.GridTable";
 
     static {
         try {
@@ -140,14 +146,37 @@ public class GridTable extends JPanel {
     //
 
     private final GridBagConstraints defaultConstraints = new GridBagConstraints();
-    private final GridBagLayout layout = new GridBagLayout();
+    private LayoutManager2 layout = new GridBagLayout();
+    private final ConstraintCache constraintCache = new ConstraintCache();
 
     private int nextRow = 0;
     private int maxCol = 0;
-    private int[] filledCols = new int[32];
+    private final Occupancy occupancy = new Occupancy();
+    // the components of each row, in gridy order; see insertRow, removeRow
+    private final ArrayList rows = new ArrayList();
+
+    // batch state; see beginBatch/commitBatch
+    private int batchDepth;
+    private ArrayList batchComps;
+    private ArrayList batchConstraints;
+
+    // see getSharedRow
+    private GridRow sharedRow;
+    private boolean sharedRowOut;
+
+    // set when rows come from a GridRowSupplier; see setRowSupplier
+    private VirtualRows virtualRows;
+
+    // null unless metrics are on; see GridTableMetrics
+    private GridTableMetrics metrics;
+    // the runtime's totals, if set; see setMetricsTotals
+    private GridTableMetrics metricsTotals;
 
     public GridTable() {
        setLayout(layout);
+       if (GridTableMetrics.isEnabled()) {
+           setMetricsEnabled(true);
+       }
     }
     
     // override Container#add(Component,Object)
@@ -155,9 +184,7 @@ public class GridTable extends JPanel {
     // user chooses to manually manage gridx/gridy, etc. (instead of using GridRow)
     public void add(Component comp, Object constraints) {
     	if (constraints instanceof RubyHash) {
-    		GridBagConstraints c = (GridBagConstraints)defaultConstraints.clone();
-    		setHashedValues(c, (RubyHash)constraints);
-    		constraints = c;
+    		constraints = constraintCache.newConstraints(defaultConstraints, (RubyHash)constraints);
     	}
     	super.add(comp, constraints);
     }
@@ -167,57 +194,160 @@ public class GridTable extends JPanel {
     // user chooses to manually manage gridx/gridy, etc. (instead of using GridRow)
     public void add(Component comp, Object constraints, int index) {
     	if (constraints instanceof RubyHash) {
-    		GridBagConstraints c = (GridBagConstraints)defaultConstraints.clone();
-    		setHashedValues(c, (RubyHash)constraints);
-    		constraints = c;
+    		constraints = constraintCache.newConstraints(defaultConstraints, (RubyHash)constraints);
     	}
     	super.add(comp, constraints, index);
     }
     
     public void addRow(GridRow gridRow) {
-    	Object rowDefaultsObj;
-    	GridBagConstraints rowDefaults;
-    	if ((rowDefaultsObj = gridRow.defaultConstraints) != null) {
-    		if (rowDefaultsObj instanceof RubyHash) {
-    			rowDefaults = (GridBagConstraints)this.defaultConstraints.clone();
-    			setHashedValues(rowDefaults, (RubyHash)rowDefaultsObj);
-    		} else if (rowDefaultsObj instanceof GridBagConstraints) {
-    			rowDefaults = (GridBagConstraints)rowDefaultsObj;
-    		} else {
-    			rowDefaults = this.defaultConstraints;
-    		}
-    	} else {
-    		rowDefaults = this.defaultConstraints;
+    	if (virtualRows != null) {
+    		throw new IllegalStateException("GridTable: addRow not supported with a row supplier");
     	}
-    	rowDefaults.gridy = nextRow++;
-    	int col = 0;
-    	ArrayList cells;
-    	if ((cells = gridRow.cells) == null || cells.size() == 0) {
-    		advanceCols();
-    		return;
+    	long start = metrics == null ? 0 : System.nanoTime();
+    	RowEntry row = layoutRow(gridRow, nextRow++);
+    	releaseRow(gridRow);
+    	rows.add(row);
+    	for (int i = 0; i < row.count; i++) {
+    		addCell(row.comps[i], row.cons[i]);
+    	}
+    	if (metrics != null) {
+    		metrics.rowAdded(System.nanoTime() - start);
     	}
-    	for (Iterator iter = cells.iterator(); iter.hasNext(); ) {
-    		GridRow.GridCell cell = (GridRow.GridCell)iter.next();
+    }
+    
+    /**
+     * Inserts a row before the row at index (or appends it, if index is the
+     * row count). Rows below are renumbered, and cells spanning the insertion
+     * point are stretched to cover the new row. A cell of the new row that
+     * spans rows must not cover any cell below; if it would, an
+     * IllegalArgumentException is thrown, and the table is left as it was.
+     */
+    public void insertRow(int index, GridRow gridRow) {
+    	checkEditable();
+    	if (index < 0 || index > nextRow) {
+    		throw new IndexOutOfBoundsException("GridTable: row index: " + index + ", row count: " + nextRow);
+    	}
+    	renumberRows(index, 1);
+    	updateSpans(occupancy.insertRow(index));
+    	RowEntry row;
+    	try {
+    		row = layoutRow(gridRow, index);
+    	} catch (IllegalArgumentException e) {
+    		updateSpans(occupancy.removeRow(index));
+    		renumberRows(index, -1);
+    		releaseRow(gridRow);
+    		throw e;
+    	}
+    	releaseRow(gridRow);
+    	int pos = componentIndex(index);
+    	rows.add(index, row);
+    	nextRow++;
+    	for (int i = 0; i < row.count; i++) {
+    		super.add(row.comps[i], row.cons[i], pos + i);
+    	}
+    	revalidate();
+    	repaint();
+    }
+    
+    /**
+     * Removes the row at index. Rows below are renumbered, and cells spanning
+     * the removed row are shrunk. (Cells placed around a multi-row cell of
+     * the removed row keep their columns.)
+     */
+    public void removeRow(int index) {
+    	checkEditable();
+    	checkRowIndex(index);
+    	RowEntry row = (RowEntry)rows.remove(index);
+    	for (int i = 0; i < row.count; i++) {
+    		super.remove(getComponentZOrder(row.comps[i]));
+    	}
+    	nextRow--;
+    	updateSpans(occupancy.removeRow(index));
+    	renumberRows(index, -1);
+    	revalidate();
+    	repaint();
+    }
+    
+    /**
+     * Replaces the row at index; other rows are unaffected. As with
+     * insertRow, a cell of the new row may not span rows onto cells below.
+     */
+    public void replaceRow(int index, GridRow gridRow) {
+    	checkEditable();
+    	checkRowIndex(index);
+    	ArrayList oldSpans = occupancy.removeCells(index);
+    	RowEntry row;
+    	try {
+    		row = layoutRow(gridRow, index);
+    	} catch (IllegalArgumentException e) {
+    		occupancy.addSpans(oldSpans);
+    		releaseRow(gridRow);
+    		throw e;
+    	}
+    	releaseRow(gridRow);
+    	RowEntry old = (RowEntry)rows.set(index, RowEntry.EMPTY);
+    	for (int i = 0; i < old.count; i++) {
+    		super.remove(getComponentZOrder(old.comps[i]));
+    	}
+    	int pos = componentIndex(index);
+    	rows.set(index, row);
+    	for (int i = 0; i < row.count; i++) {
+    		super.add(row.comps[i], row.cons[i], pos + i);
+    	}
+    	revalidate();
+    	repaint();
+    }
+    
+    /**
+     * Returns an empty row to fill and pass to addRow (or insertRow,
+     * replaceRow), which resets it for the next call. The same instance is
+     * returned each time, so building a large table allocates no rows; the
+     * row must not be kept, or used after it has been added. If the shared
+     * row is still out (not yet added), a new row is returned instead.
+     */
+    public GridRow getSharedRow() {
+    	if (sharedRowOut) {
+    		return new GridRow();
+    	}
+    	if (sharedRow == null) {
+    		sharedRow = new GridRow();
+    	}
+    	sharedRowOut = true;
+    	return sharedRow;
+    }
+    
+    // once a row is laid out, nothing refers to it, so the shared row can
+    // be handed out again
+    private void releaseRow(GridRow gridRow) {
+    	if (gridRow == sharedRow) {
+    		gridRow.reset();
+    		sharedRowOut = false;
+    	}
+    }
+    
+    // assign columns to the cells of a row, recording the space they occupy;
+    // if a cell spanning rows would cover a cell below, nothing is recorded
+    // and IllegalArgumentException is thrown
+    private RowEntry layoutRow(GridRow gridRow, int rowIndex) {
+    	GridBagConstraints rowDefaults = getRowDefaults(gridRow);
+    	rowDefaults.gridy = rowIndex;
+    	int n;
+    	if ((n = gridRow.count) == 0) {
+    		return RowEntry.EMPTY;
+    	}
+    	Component[] comps = gridRow.comps;
+    	Object[] constraints = gridRow.constraints;
+    	RowEntry row = new RowEntry(n);
+    	int oldMaxCol = maxCol;
+    	int col = 0;
+    	for (int i = 0; i < n; i++) {
     		Component comp;
-    		if ((comp = cell.comp) == null) continue;
-    		Object constObj;
-    		GridBagConstraints c;
-    		if ((constObj = cell.constraints) != null) {
-    			if (constObj instanceof RubyHash) {
-        			c = (GridBagConstraints)rowDefaults.clone();
-        			setHashedValues(c, (RubyHash)constObj);
-    			} else if (constObj instanceof GridBagConstraints) {
-    				c = (GridBagConstraints)constObj;
-    			} else {
-        			c = (GridBagConstraints)rowDefaults.clone();
-    			}
-    		} else {
-    			c = (GridBagConstraints)rowDefaults.clone();
-    		}
+    		if ((comp = comps[i]) == null) continue;
+    		GridBagConstraints c = getCellConstraints(rowDefaults, constraints[i]);
     		int ccol;
     		if ((ccol = c.gridx) < 0) {
     			// find the next empty column
-    			for ( ; isColFilled(col); col++);
+    			for ( ; occupancy.isFilled(col, rowIndex); col++);
     			ccol = c.gridx = col;
     		} else {
     			col = ccol;
@@ -232,45 +362,485 @@ public class GridTable extends JPanel {
     		} else {
     			nextcol = col + w;
     		}
-    		if (h <= 0)
-    			h--; // map to our usage, rel = -2, rem = -1
     		int lastcol = nextcol - 1;
-    		setColsFilled(col, lastcol, h);
+    		if (h != 1 && coversBelow(col, lastcol, rowIndex, h)) {
+    			occupancy.cancelRow(rowIndex);
+    			maxCol = oldMaxCol;
+    			throw new IllegalArgumentException("GridTable: cell at row " + rowIndex +
+    					", column " + col + " spans rows onto cells below it");
+    		}
+    		occupancy.fill(col, lastcol, rowIndex, h, comp, c);
     		col = nextcol;
     		if (maxCol < lastcol)
     			maxCol = lastcol;
     		
-    		super.add(comp, c);
-    		
+    		row.add(comp, c);
     	}
-    	advanceCols();
+    	occupancy.endRow(rowIndex);
+    	return row;
     }
     
-    private boolean isColFilled(int col) {
-    	return col < filledCols.length && filledCols[col] != 0;
+    // whether a cell occupying columns first to last, from row rowIndex
+    // for h rows (or to the end, if h <= 0), covers a cell of a row below;
+    // rows (from rowIndex on) are those below, the new row not yet being
+    // among them
+    private boolean coversBelow(int first, int last, int rowIndex, int h) {
+    	int end = h <= 0 ? Integer.MAX_VALUE : rowIndex + h;
+    	for (int r = rowIndex, n = rows.size(); r < n; r++) {
+    		RowEntry row = (RowEntry)rows.get(r);
+    		for (int i = 0; i < row.count; i++) {
+    			GridBagConstraints c = row.cons[i];
+    			if (c.gridy <= rowIndex) continue;
+    			if (c.gridy >= end) return false;
+    			// RELATIVE/REMAINDER widths run to the end of the row
+    			if (c.gridx <= last && (c.gridwidth <= 0 || c.gridx + c.gridwidth > first)) {
+    				return true;
+    			}
+    		}
+    	}
+    	return false;
     }
     
-    private void setColsFilled(int first, int last, int rows) {
-    	if (last > maxCol) maxCol = last;
-    	if (last > filledCols.length) {
-    		int newSize = filledCols.length << 1;
-    		while (newSize <= last) {
-    			newSize <<= 1;
+    // shift the gridy of rows from index on by delta
+    private void renumberRows(int index, int delta) {
+    	for (int r = index, n = rows.size(); r < n; r++) {
+    		RowEntry row = (RowEntry)rows.get(r);
+    		for (int i = 0; i < row.count; i++) {
+    			GridBagConstraints c = row.cons[i];
+    			c.gridy += delta;
+    			setLayoutConstraints(row.comps[i], c);
     		}
-    		int[] newCols = new int[newSize];
-    		System.arraycopy(filledCols, 0, newCols, 0, filledCols.length);
-    		filledCols = newCols;
     	}
-    	for (int i = first; i <= last; i++) {
-    		filledCols[i] = rows;
+    }
+    
+    private void updateSpans(ArrayList spans) {
+    	for (int i = spans.size(); --i >= 0; ) {
+    		Occupancy.Span span = (Occupancy.Span)spans.get(i);
+    		setLayoutConstraints(span.comp, span.c);
+    	}
+    }
+    
+    private void setLayoutConstraints(Component comp, GridBagConstraints c) {
+    	if (layout instanceof GridTableLayout) {
+    		((GridTableLayout)layout).setConstraints(comp, c);
+    	} else {
+    		((GridBagLayout)layout).setConstraints(comp, c);
     	}
     }
     
-    private void advanceCols() {
-    	int[] cols = filledCols;
-    	for (int i = maxCol; i >= 0; i--) {
-    		if (cols[i] > 0) --cols[i];
+    // the container index for the first component of the row at index
+    private int componentIndex(int index) {
+    	for (int r = index, n = rows.size(); r < n; r++) {
+    		RowEntry row = (RowEntry)rows.get(r);
+    		if (row.count > 0) {
+    			return getComponentZOrder(row.comps[0]);
+    		}
     	}
+    	return getComponentCount();
+    }
+    
+    // override Container#remove(int) (which remove(Component) calls), to
+    // drop a component removed directly from its row, so its constraints
+    // and span aren't left behind for row edits to renumber or stretch
+    public void remove(int index) {
+    	if (virtualRows == null) {
+    		forgetCell(getComponent(index));
+    	}
+    	super.remove(index);
+    }
+    
+    private void forgetCell(Component comp) {
+    	int r = getConstraints(layout, comp).gridy;
+    	if (r < 0 || r >= rows.size()) return;
+    	RowEntry row = (RowEntry)rows.get(r);
+    	if (row.remove(comp)) {
+    		occupancy.removeCell(comp);
+    	}
+    }
+    
+    // override Container#removeAll, which also starts the rows over
+    public void removeAll() {
+    	super.removeAll();
+    	rows.clear();
+    	occupancy.clear();
+    	nextRow = 0;
+    	maxCol = 0;
+    }
+    
+    private void checkEditable() {
+    	if (virtualRows != null) {
+    		throw new IllegalStateException("GridTable: rows can't be edited with a row supplier");
+    	}
+    	if (batchDepth > 0) {
+    		throw new IllegalStateException("GridTable: rows can't be edited while batching");
+    	}
+    }
+    
+    private void checkRowIndex(int index) {
+    	if (index < 0 || index >= nextRow) {
+    		throw new IndexOutOfBoundsException("GridTable: row index: " + index + ", row count: " + nextRow);
+    	}
+    }
+    
+    GridBagConstraints getRowDefaults(GridRow gridRow) {
+    	Object rowDefaultsObj;
+    	if ((rowDefaultsObj = gridRow.defaultConstraints) != null) {
+    		if (rowDefaultsObj instanceof RubyHash) {
+    			return constraintCache.newConstraints(this.defaultConstraints, (RubyHash)rowDefaultsObj);
+    		} else if (rowDefaultsObj instanceof GridBagConstraints) {
+    			return (GridBagConstraints)rowDefaultsObj;
+    		}
+    	}
+    	return this.defaultConstraints;
+    }
+    
+    GridBagConstraints getCellConstraints(GridBagConstraints rowDefaults, Object constObj) {
+    	if (constObj != null) {
+    		if (constObj instanceof RubyHash) {
+    			return constraintCache.newConstraints(rowDefaults, (RubyHash)constObj);
+    		} else if (constObj instanceof GridBagConstraints) {
+    			// copied, as we adjust gridx/gridy etc. in place
+    			return (GridBagConstraints)((GridBagConstraints)constObj).clone();
+    		}
+    	}
+    	return (GridBagConstraints)rowDefaults.clone();
+    }
+    
+    public void addRows(List gridRows) {
+    	beginBatch();
+    	try {
+    		for (Iterator iter = gridRows.iterator(); iter.hasNext(); ) {
+    			addRow((GridRow)iter.next());
+    		}
+    	} finally {
+    		commitBatch();
+    	}
+    }
+    
+    private void addCell(Component comp, GridBagConstraints c) {
+    	if (batchDepth > 0) {
+    		batchComps.add(comp);
+    		batchConstraints.add(c);
+    	} else {
+    		super.add(comp, c);
+    	}
+    }
+    
+    /**
+     * Starts a batch. Until the matching commitBatch, cells added via addRow
+     * are collected rather than added, and invalidation of this table (and
+     * hence of its ancestors) is suspended. Batches may be nested; only the
+     * outermost commitBatch adds the collected cells. A component added
+     * directly (via add) while batching first adds the cells collected so
+     * far, so components keep the order in which they were added.
+     */
+    public void beginBatch() {
+    	if (batchDepth++ == 0) {
+    		batchComps = new ArrayList();
+    		batchConstraints = new ArrayList();
+    	}
+    }
+    
+    /**
+     * Ends a batch. For the outermost batch, adds all collected cells, then
+     * invalidates and revalidates the table once.
+     */
+    public void commitBatch() {
+    	if (batchDepth == 0) {
+    		throw new IllegalStateException("GridTable: commitBatch called without beginBatch");
+    	}
+    	if (batchDepth > 1) {
+    		batchDepth--;
+    		return;
+    	}
+    	try {
+    		flushBatch();
+    	} finally {
+    		batchDepth = 0;
+    		batchComps = null;
+    		batchConstraints = null;
+    	}
+    	// we've suppressed any invalidation since beginBatch, so we must do
+    	// it here (revalidate won't if we don't have a parent yet)
+    	invalidate();
+    	revalidate();
+    	repaint();
+    }
+    
+    // adds the cells collected so far, leaving the batch open
+    private void flushBatch() {
+    	ArrayList comps = batchComps;
+    	ArrayList constraints = batchConstraints;
+    	// replaced first, as addImpl flushes while there are cells
+    	batchComps = new ArrayList();
+    	batchConstraints = new ArrayList();
+    	for (int i = 0, n = comps.size(); i < n; i++) {
+    		super.add((Component)comps.get(i), constraints.get(i));
+    	}
+    }
+    
+    public boolean isBatching() {
+    	return batchDepth > 0;
+    }
+    
+    // override Container#invalidate, suppressed while batching
+    public void invalidate() {
+    	if (batchDepth == 0) {
+    		super.invalidate();
+    	}
+    }
+    
+    /**
+     * Switches between GridBagLayout (the default) and GridTableLayout,
+     * which caches row and column sizes between layout passes. Components
+     * already added keep their constraints.
+     */
+    public void setIncrementalLayout(boolean incremental) {
+        if (incremental == isIncrementalLayout()) return;
+        if (virtualRows != null) {
+            throw new IllegalStateException("GridTable: layout can't be changed with a row supplier");
+        }
+        LayoutManager2 oldLayout = layout;
+        LayoutManager2 newLayout = incremental ? (LayoutManager2)new GridTableLayout() : new GridBagLayout();
+        Component[] comps = getComponents();
+        for (int i = 0; i < comps.length; i++) {
+            newLayout.addLayoutComponent(comps[i], getConstraints(oldLayout, comps[i]));
+        }
+        layout = newLayout;
+        setLayout(newLayout);
+    }
+
+    public boolean isIncrementalLayout() {
+        return layout instanceof GridTableLayout;
+    }
+
+    private static GridBagConstraints getConstraints(LayoutManager2 layout, Component comp) {
+        if (layout instanceof GridTableLayout) {
+            return ((GridTableLayout)layout).getConstraints(comp);
+        }
+        return ((GridBagLayout)layout).getConstraints(comp);
+    }
+
+    /**
+     * Makes this a virtual table, whose rows are obtained from the supplier
+     * only as they scroll into view, or, if supplier is null, a normal table
+     * again. Any rows already added are removed. See VirtualRows for how
+     * virtual rows are laid out.
+     */
+    public void setRowSupplier(GridRowSupplier supplier, int rowCount) {
+        if (batchDepth > 0) {
+            throw new IllegalStateException("GridTable: can't set row supplier while batching");
+        }
+        VirtualRows rows = supplier == null ? null : new VirtualRows(this, supplier, rowCount);
+        if (virtualRows != null) {
+            virtualRows.detach();
+        }
+        removeAll();
+        if ((virtualRows = rows) != null) {
+            setLayout(rows);
+            if (isDisplayable()) {
+                rows.attach();
+            }
+        } else {
+            setLayout(layout);
+        }
+        revalidate();
+        repaint();
+    }
+
+    public GridRowSupplier getRowSupplier() {
+        return virtualRows == null ? null : virtualRows.getSupplier();
+    }
+
+    public boolean isVirtual() {
+        return virtualRows != null;
+    }
+
+    public int getRowCount() {
+        return virtualRows == null ? nextRow : virtualRows.getRowCount();
+    }
+
+    public void setRowCount(int rowCount) {
+        virtualRows().setRowCount(rowCount);
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Sets a fixed height for virtual rows; if 0 (the default), rows are as
+     * tall as the tallest realized so far.
+     */
+    public void setRowHeight(int height) {
+        virtualRows().setFixedRowHeight(height);
+        revalidate();
+        repaint();
+    }
+
+    public int getRowHeight() {
+        return virtualRows == null ? 0 : virtualRows.getRowHeight();
+    }
+
+    /**
+     * Requests the visible virtual rows from the supplier again, for when
+     * the data behind them has changed.
+     */
+    public void refreshRows() {
+        virtualRows().refresh();
+        revalidate();
+        repaint();
+    }
+
+    public int getRealizedRowCount() {
+        return virtualRows == null ? getRowCount() : virtualRows.getRealizedRowCount();
+    }
+
+    public long getRowsRealized() {
+        return virtualRows == null ? 0 : virtualRows.getRowsRealized();
+    }
+
+    public long getRowsRecycled() {
+        return virtualRows == null ? 0 : virtualRows.getRowsRecycled();
+    }
+
+    private VirtualRows virtualRows() {
+        if (virtualRows == null) {
+            throw new IllegalStateException("GridTable: no row supplier set");
+        }
+        return virtualRows;
+    }
+
+    // called by VirtualRows as rows are realized and recycled
+    void addVirtual(Component comp) {
+        super.add(comp, null, -1);
+    }
+
+    void removeVirtual(Component comp) {
+        remove(comp);
+    }
+
+    public void addNotify() {
+        super.addNotify();
+        if (virtualRows != null) {
+            virtualRows.attach();
+        }
+        if (metrics != null) {
+            registerMetrics();
+        }
+    }
+
+    public void removeNotify() {
+        if (virtualRows != null) {
+            virtualRows.detach();
+        }
+        if (metrics != null) {
+            metrics.unregister();
+        }
+        super.removeNotify();
+    }
+
+    //
+    // metrics
+    //
+
+    /**
+     * Turns metrics on or off for this table (see GridTableMetrics). Turning
+     * them off discards any collected for this table, though not the totals.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled == (metrics != null)) return;
+        if (enabled) {
+            metrics = new GridTableMetrics(metricsTotals);
+            if (isDisplayable()) {
+                registerMetrics();
+            }
+        } else {
+            metrics.unregister();
+            metrics = null;
+        }
+        constraintCache.metrics = metrics;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metrics != null;
+    }
+
+    public GridTableMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the totals this table's metrics are added to; the grid_table
+     * builder sets those of its runtime (RuntimeResources#getGridTableTotals).
+     * Metrics already recorded aren't carried over.
+     */
+    public void setMetricsTotals(GridTableMetrics totals) {
+        metricsTotals = totals;
+        if (metrics != null) {
+            metrics.setTotals(totals);
+        }
+    }
+
+    public GridTableMetrics getMetricsTotals() {
+        return metricsTotals;
+    }
+
+    private void registerMetrics() {
+        String name = getName();
+        metrics.register(name != null ? name : "GridTable");
+    }
+
+    // override Container#addImpl, to count components added, and to keep
+    // components added directly while batching after the cells before them
+    protected void addImpl(Component comp, Object constraints, int index) {
+        if (batchDepth > 0 && !batchComps.isEmpty()) {
+            flushBatch();
+        }
+        super.addImpl(comp, constraints, index);
+        if (metrics != null) {
+            metrics.componentAdded();
+        }
+    }
+
+    // override Container#doLayout, to time layout passes
+    public void doLayout() {
+        GridTableMetrics metrics;
+        if ((metrics = this.metrics) != null) {
+            long start = System.nanoTime();
+            super.doLayout();
+            metrics.layout(System.nanoTime() - start);
+        } else {
+            super.doLayout();
+        }
+    }
+
+    // override Container#validateTree, to time validate passes
+    protected void validateTree() {
+        GridTableMetrics metrics;
+        if ((metrics = this.metrics) != null) {
+            long start = System.nanoTime();
+            super.validateTree();
+            metrics.validated(System.nanoTime() - start);
+        } else {
+            super.validateTree();
+        }
+    }
+
+    // constraint template cache statistics
+
+    public long getConstraintCacheHits() {
+        return constraintCache.getHits();
+    }
+
+    public long getConstraintCacheMisses() {
+        return constraintCache.getMisses();
+    }
+
+    public int getConstraintCacheSize() {
+        return constraintCache.size();
+    }
+
+    public void clearConstraintCache() {
+        constraintCache.clear();
     }
 
     public GridBagConstraints getDefaults() {
@@ -280,7 +850,7 @@ public class GridTable extends JPanel {
     
     public void setDefaults(Object defaults) {
         if (defaults instanceof RubyHash) {
-            setHashedValues(defaultConstraints, (RubyHash)defaults);
+            setHashedValues(defaultConstraints, (RubyHash)defaults, metrics);
         } else if (defaults instanceof RubyArray) {
             // TODO: shorthand syntax (list of constant syms; field inferred;
         	// may have hash as last arg)
@@ -288,37 +858,64 @@ public class GridTable extends JPanel {
     }
     
     static void setHashedValues(GridBagConstraints c, RubyHash hash) {
+        setHashedValues(c, hash, null);
+    }
+    
+    // every call is counted (and timed) here, if metrics are on, whatever
+    // the caller
+    static void setHashedValues(GridBagConstraints c, RubyHash hash, GridTableMetrics metrics) {
+        if (metrics != null) {
+            long start = System.nanoTime();
+            try {
+                applyHashedValues(c, hash);
+            } finally {
+                metrics.hashedValues(System.nanoTime() - start);
+            }
+        } else {
+            applyHashedValues(c, hash);
+        }
+    }
+    
+    private static void applyHashedValues(GridBagConstraints c, RubyHash hash) {
         Ruby runtime = hash.getRuntime();
         JRubyVersionAdapter adapter = JRubyVersionAdapter.getAdapter();
+        Map symbols = RuntimeResources.getResources(runtime).getSymbolCache(SYMBOL_CACHE);
         Object anchor = null;
         Object valign = null;
         for (Iterator iter = hash.entrySet().iterator(); iter.hasNext(); ) {
             Map.Entry entry = (Map.Entry)iter.next();
-            String fieldName = adapter.getAsSymbolString(runtime, entry.getKey()).toLowerCase();
-            Object value = entry.getValue();
-            if (value instanceof RubySymbol) {
-                value = adapter.getAsSymbolString(runtime, value);
+            Object key = entry.getKey();
+            Integer fieldId;
+            if (key instanceof RubySymbol) {
+                fieldId = getSymbolEntry(symbols, adapter, runtime, key).fieldId;
+            } else if (key instanceof String) {
+                // string keys arrive already converted
+                fieldId = (Integer)FIELDS.get(((String)key).toLowerCase());
+            } else {
+                fieldId = (Integer)FIELDS.get(adapter.getAsSymbolString(runtime, key).toLowerCase());
             }
-            if (value instanceof String) {
-                Object mapped;
-                if ((mapped = SYMS.get(((String)value).toLowerCase())) != null) {
-                    value = mapped;
+            if (fieldId != null) {
+                Object value = entry.getValue();
+                if (value instanceof RubySymbol) {
+                    value = getSymbolEntry(symbols, adapter, runtime, value).value;
+                } else if (value instanceof String) {
+                    Object mapped;
+                    if ((mapped = SYMS.get(((String)value).toLowerCase())) != null) {
+                        value = mapped;
+                    }
+                }
+                int fid;
+                switch(fid = fieldId.intValue()) {
+                case F_ANCHOR:
+                    anchor = value;
+                    break;
+                case F_VALIGN:
+                    valign = value;
+                    break;
+                default:
+                    setValue(c, fid, value);
+                    break;
                 }
-            }
-            Integer fieldId;
-            if ((fieldId = (Integer)FIELDS.get(fieldName)) != null) {
-            	int fid;
-            	switch(fid = fieldId.intValue()) {
-            	case F_ANCHOR:
-            		anchor = value;
-            		break;
-            	case F_VALIGN:
-            		valign = value;
-            		break;
-            	default:
-            		setValue(c, fid, value);
-            		break;
-            	}
             }
         }
         if (anchor != null || valign != null) {
@@ -339,6 +936,20 @@ public class GridTable extends JPanel {
         }
     }
     
+    // the field id (if any) for a symbol used as a key, and the constant
+    // value (or else name) for one used as a value, cached per runtime
+    private static SymbolEntry getSymbolEntry(Map symbols, JRubyVersionAdapter adapter, Ruby runtime, Object sym) {
+        SymbolEntry entry;
+        if ((entry = (SymbolEntry)symbols.get(sym)) == null) {
+            String name = adapter.getAsSymbolString(runtime, sym);
+            String lname = name.toLowerCase();
+            Object value = SYMS.get(lname);
+            entry = new SymbolEntry((Integer)FIELDS.get(lname), value != null ? value : name);
+            symbols.put(sym, entry);
+        }
+        return entry;
+    }
+    
     static void setValue(GridBagConstraints c, String fieldName, Object value) {
         Integer fieldId;
         if ((fieldId = (Integer)FIELDS.get(fieldName)) != null) {
@@ -529,4 +1140,46 @@ public class GridTable extends JPanel {
         return ints;
     }
 
+    private static final class SymbolEntry {
+        final Integer fieldId;
+        final Object value;
+        
+        SymbolEntry(Integer fieldId, Object value) {
+            this.fieldId = fieldId;
+            this.value = value;
+        }
+    }
+
+    // the components of a row, and their (resolved) constraints
+    private static final class RowEntry {
+    	static final RowEntry EMPTY = new RowEntry(0);
+    	
+    	final Component[] comps;
+    	final GridBagConstraints[] cons;
+    	int count;
+    	
+    	RowEntry(int size) {
+    		comps = new Component[size];
+    		cons = new GridBagConstraints[size];
+    	}
+    	
+    	void add(Component comp, GridBagConstraints c) {
+    		comps[count] = comp;
+    		cons[count++] = c;
+    	}
+    	
+    	boolean remove(Component comp) {
+    		for (int i = count; --i >= 0; ) {
+    			if (comps[i] == comp) {
+    				System.arraycopy(comps, i + 1, comps, i, count - i - 1);
+    				System.arraycopy(cons, i + 1, cons, i, count - i - 1);
+    				comps[--count] = null;
+    				cons[count] = null;
+    				return true;
+    			}
+    		}
+    		return false;
+    	}
+    }
+
 }
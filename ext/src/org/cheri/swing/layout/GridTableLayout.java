@@ -0,0 +1,737 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GridBagConstraints;
+import java.awt.Insets;
+import java.awt.LayoutManager2;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A table layout that understands the GridBagConstraints model used by
+ * GridTable (gridx/gridy, gridwidth/gridheight including RELATIVE and
+ * REMAINDER, weights, insets, ipad, fill and anchor), but unlike
+ * GridBagLayout does not recompute everything on each layout pass.
+ * <p>
+ * Component minimum/preferred sizes are cached per cell, and only re-queried
+ * for components that have been invalidated (or have changed visibility)
+ * since the last pass; cells aren't checked at all unless the container has
+ * been invalidated since it was last valid. Only the rows and columns whose
+ * cells' sizes have actually changed are recomputed (from the cached cell
+ * sizes), and only the spanning cells that cross them are spread again. As
+ * with any Swing layout, a component whose size requirements change should
+ * be revalidated.
+ * <p>
+ * Differences from GridBagLayout: components with a RELATIVE gridx are
+ * placed after the previous component in the same row, and those with a
+ * RELATIVE gridy in the same row as the previous component. Baseline
+ * anchors are treated as their non-baseline equivalents.
+ */
+public class GridTableLayout implements LayoutManager2 {
+
+    private static final int MIN = 0;
+    private static final int PREF = 1;
+
+    // the GridBagConstraints baseline anchors, which are Java 6 additions;
+    // the classes are compiled for (and on) Java 5, so their values are
+    // copied here
+    private static final int BASELINE_LEADING        = 0x200;
+    private static final int BASELINE_TRAILING       = 0x300;
+    private static final int ABOVE_BASELINE          = 0x400;
+    private static final int ABOVE_BASELINE_LEADING  = 0x500;
+    private static final int ABOVE_BASELINE_TRAILING = 0x600;
+    private static final int BELOW_BASELINE          = 0x700;
+    private static final int BELOW_BASELINE_LEADING  = 0x800;
+    private static final int BELOW_BASELINE_TRAILING = 0x900;
+
+    private final Map comptable = new HashMap();
+    // cells in the order they were added, needed to resolve RELATIVE positions
+    private final ArrayList cells = new ArrayList();
+    // multi-row/multi-column cells, applied after the single-span sizes in
+    // order of increasing span (as GridBagLayout does; the result depends on it)
+    private final ArrayList rowSpans = new ArrayList();
+    private final ArrayList colSpans = new ArrayList();
+
+    // the single-row/single-column cells of each row and column
+    private Slot[] rows = new Slot[0];
+    private Slot[] cols = new Slot[0];
+    private int ncols;
+    private int nrows;
+
+    private int[][] colSizes = new int[2][0];
+    private int[][] rowSizes = new int[2][0];
+    private double[] colWeights = new double[0];
+    private double[] rowWeights = new double[0];
+
+    private boolean structureDirty;
+    // set when the container is invalidated, and kept until a check finds
+    // it valid, as children invalidated meanwhile don't tell us
+    private boolean cellsDirty;
+    // some row (column) is marked dirty
+    private boolean rowsDirty;
+    private boolean colsDirty;
+
+    // statistics, mostly of interest when tuning large forms
+    private long layoutPasses;
+    private long cellScans;
+    private long componentQueries;
+    private long rowUpdates;
+    private long columnUpdates;
+
+    public GridTableLayout() {
+    }
+
+    //
+    // LayoutManager2
+    //
+
+    public void addLayoutComponent(Component comp, Object constraints) {
+        GridBagConstraints c;
+        if (constraints instanceof GridBagConstraints) {
+            c = (GridBagConstraints)((GridBagConstraints)constraints).clone();
+        } else if (constraints == null) {
+            c = new GridBagConstraints();
+        } else {
+            throw new IllegalArgumentException("cannot add to layout: constraints must be a GridBagConstraints");
+        }
+        Cell cell;
+        if ((cell = (Cell)comptable.get(comp)) != null) {
+            // the cached sizes are the component's own, so still good
+            cell.c = c;
+        } else {
+            cell = new Cell(comp, c);
+            comptable.put(comp, cell);
+            cells.add(cell);
+        }
+        structureDirty = true;
+    }
+
+    public void addLayoutComponent(String name, Component comp) {
+    }
+
+    public void removeLayoutComponent(Component comp) {
+        Cell cell;
+        if ((cell = (Cell)comptable.remove(comp)) != null) {
+            cells.remove(cell);
+            structureDirty = true;
+        }
+    }
+
+    public void invalidateLayout(Container target) {
+        // changed components are detected (by their own validity) when
+        // the sizes are next needed
+        cellsDirty = true;
+    }
+
+    public Dimension minimumLayoutSize(Container parent) {
+        synchronized (parent.getTreeLock()) {
+            update(parent);
+            return layoutSize(parent, MIN);
+        }
+    }
+
+    public Dimension preferredLayoutSize(Container parent) {
+        synchronized (parent.getTreeLock()) {
+            update(parent);
+            return layoutSize(parent, PREF);
+        }
+    }
+
+    public Dimension maximumLayoutSize(Container target) {
+        return new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public float getLayoutAlignmentX(Container target) {
+        return 0.5f;
+    }
+
+    public float getLayoutAlignmentY(Container target) {
+        return 0.5f;
+    }
+
+    public void layoutContainer(Container parent) {
+        synchronized (parent.getTreeLock()) {
+            update(parent);
+            layoutPasses++;
+            // as with GridBagLayout, fall back to minimum sizes (in both
+            // dimensions) if the preferred size doesn't fit
+            Dimension pref = layoutSize(parent, PREF);
+            int which = parent.getWidth() < pref.width || parent.getHeight() < pref.height ? MIN : PREF;
+            Insets pin = parent.getInsets();
+            int width = parent.getWidth() - pin.left - pin.right;
+            int height = parent.getHeight() - pin.top - pin.bottom;
+
+            int[] xs = offsets(distribute(colSizes[which], colWeights, ncols, width), pin.left, width);
+            int[] ys = offsets(distribute(rowSizes[which], rowWeights, nrows, height), pin.top, height);
+
+            boolean ltr = parent.getComponentOrientation().isLeftToRight();
+            int pwidth = parent.getWidth();
+            for (int i = 0, n = cells.size(); i < n; i++) {
+                Cell cell = (Cell)cells.get(i);
+                if (!cell.visible) continue;
+                int x = xs[cell.x];
+                int y = ys[cell.y];
+                int w = xs[cell.x + cell.w] - x;
+                int h = ys[cell.y + cell.h] - y;
+                if (!ltr) {
+                    x = pwidth - x - w;
+                }
+                if (which == MIN) {
+                    place(cell.comp, cell.c, cell.minw, cell.minh, x, y, w, h, ltr);
+                } else {
+                    place(cell.comp, cell.c, cell.prefw, cell.prefh, x, y, w, h, ltr);
+                }
+            }
+        }
+    }
+
+    //
+    // constraints access, as for GridBagLayout
+    //
+
+    public GridBagConstraints getConstraints(Component comp) {
+        Cell cell;
+        if ((cell = (Cell)comptable.get(comp)) != null) {
+            return (GridBagConstraints)cell.c.clone();
+        }
+        return new GridBagConstraints();
+    }
+
+    public void setConstraints(Component comp, GridBagConstraints constraints) {
+        addLayoutComponent(comp, constraints);
+    }
+
+    /**
+     * Discards all cached sizes, forcing every component to be re-queried
+     * on the next layout pass.
+     */
+    public void flush() {
+        for (int i = cells.size(); --i >= 0; ) {
+            ((Cell)cells.get(i)).sizeDirty = true;
+        }
+        structureDirty = true;
+        cellsDirty = true;
+    }
+
+    public int getColumnCount() {
+        return ncols;
+    }
+
+    public int getRowCount() {
+        return nrows;
+    }
+
+    public long getLayoutPasses() {
+        return layoutPasses;
+    }
+
+    public long getCellScans() {
+        return cellScans;
+    }
+
+    public long getComponentQueries() {
+        return componentQueries;
+    }
+
+    public long getRowUpdates() {
+        return rowUpdates;
+    }
+
+    public long getColumnUpdates() {
+        return columnUpdates;
+    }
+
+    //
+    // size computation
+    //
+
+    private void update(Container parent) {
+        if (structureDirty) {
+            resolve();
+        }
+        if (cellsDirty) {
+            scanCells();
+            cellsDirty = !parent.isValid();
+        }
+        if (rowsDirty) {
+            rowUpdates += updateSlots(rows, nrows, rowSpans, rowSizes, rowWeights, false);
+            rowsDirty = false;
+        }
+        if (colsDirty) {
+            columnUpdates += updateSlots(cols, ncols, colSpans, colSizes, colWeights, true);
+            colsDirty = false;
+        }
+    }
+
+    // re-query only components that have changed, marking the rows and
+    // columns whose sizes they change
+    private void scanCells() {
+        cellScans++;
+        for (int i = 0, n = cells.size(); i < n; i++) {
+            Cell cell = (Cell)cells.get(i);
+            Component comp = cell.comp;
+            boolean visible = comp.isVisible();
+            if (cell.sizeDirty || !comp.isValid() || visible != cell.visible) {
+                componentQueries++;
+                int minw, minh, prefw, prefh;
+                if (visible) {
+                    Dimension d = comp.getMinimumSize();
+                    minw = d.width;
+                    minh = d.height;
+                    d = comp.getPreferredSize();
+                    prefw = d.width;
+                    prefh = d.height;
+                } else {
+                    minw = minh = prefw = prefh = 0;
+                }
+                // a hidden cell's weight no longer counts either
+                boolean changed = cell.sizeDirty || visible != cell.visible;
+                if (changed || minw != cell.minw || prefw != cell.prefw) {
+                    mark(cols, cell.x, cell.w);
+                    colsDirty = true;
+                }
+                if (changed || minh != cell.minh || prefh != cell.prefh) {
+                    mark(rows, cell.y, cell.h);
+                    rowsDirty = true;
+                }
+                cell.visible = visible;
+                cell.minw = minw;
+                cell.minh = minh;
+                cell.prefw = prefw;
+                cell.prefh = prefh;
+                cell.sizeDirty = false;
+            }
+        }
+    }
+
+    private static void mark(Slot[] slots, int first, int count) {
+        for (int i = first + count; --i >= first; ) {
+            slots[i].dirty = true;
+        }
+    }
+
+    // resolve RELATIVE/REMAINDER positions and spans, and rebuild the rows
+    private void resolve() {
+        int maxCol = 0;
+        int maxRow = 0;
+        int lastx = -1;
+        int lasty = 0;
+        int lastw = 1;
+        int n = cells.size();
+        // first pass: positions, and the extent of the grid
+        for (int i = 0; i < n; i++) {
+            Cell cell = (Cell)cells.get(i);
+            GridBagConstraints c = cell.c;
+            int y = c.gridy >= 0 ? c.gridy : lasty;
+            int x = c.gridx >= 0 ? c.gridx : (y == lasty ? lastx + lastw : 0);
+            cell.x = x;
+            cell.y = y;
+            int w = c.gridwidth > 0 ? c.gridwidth : 1;
+            int h = c.gridheight > 0 ? c.gridheight : 1;
+            if (maxCol < x + w) maxCol = x + w;
+            if (maxRow < y + h) maxRow = y + h;
+            lastx = x;
+            lasty = y;
+            lastw = w;
+        }
+        ncols = maxCol;
+        nrows = maxRow;
+        // second pass: REMAINDER/RELATIVE spans, now that we know the extent
+        rowSpans.clear();
+        colSpans.clear();
+        for (int i = 0; i < n; i++) {
+            Cell cell = (Cell)cells.get(i);
+            GridBagConstraints c = cell.c;
+            cell.w = span(c.gridwidth, cell.x, ncols);
+            cell.h = span(c.gridheight, cell.y, nrows);
+            if (cell.w > 1) colSpans.add(cell);
+            if (cell.h > 1) rowSpans.add(cell);
+        }
+        // stable, so cells with the same span keep their insertion order
+        Collections.sort(colSpans, BY_WIDTH);
+        Collections.sort(rowSpans, BY_HEIGHT);
+
+        rows = slots(rows, nrows);
+        cols = slots(cols, ncols);
+        for (int i = 0; i < n; i++) {
+            Cell cell = (Cell)cells.get(i);
+            if (cell.h == 1) {
+                rows[cell.y].cells.add(cell);
+            }
+            if (cell.w == 1) {
+                cols[cell.x].cells.add(cell);
+            }
+        }
+        rowSizes = new int[][] { new int[nrows], new int[nrows] };
+        rowWeights = new double[nrows];
+        colSizes = new int[][] { new int[ncols], new int[ncols] };
+        colWeights = new double[ncols];
+        rowsDirty = true;
+        colsDirty = true;
+        cellsDirty = true;
+        structureDirty = false;
+    }
+
+    // count slots, emptied and marked dirty, reusing the old ones
+    private static Slot[] slots(Slot[] old, int count) {
+        Slot[] slots = new Slot[count];
+        for (int i = 0; i < count; i++) {
+            Slot slot = i < old.length ? old[i] : new Slot();
+            slot.cells.clear();
+            slot.dirty = true;
+            slots[i] = slot;
+        }
+        return slots;
+    }
+
+    private static final Comparator BY_WIDTH = new Comparator() {
+        public int compare(Object a, Object b) {
+            return ((Cell)a).w - ((Cell)b).w;
+        }
+    };
+
+    private static final Comparator BY_HEIGHT = new Comparator() {
+        public int compare(Object a, Object b) {
+            return ((Cell)a).h - ((Cell)b).h;
+        }
+    };
+
+    private static int span(int span, int pos, int count) {
+        if (span == GridBagConstraints.REMAINDER) {
+            return Math.max(count - pos, 1);
+        } else if (span == GridBagConstraints.RELATIVE) {
+            return Math.max(count - pos - 1, 1);
+        }
+        return Math.max(span, 1);
+    }
+
+    // recompute the dirty rows (or columns) from their single-span cells,
+    // then spread again the spanning cells that cross them; returns the
+    // number recomputed
+    private static int updateSlots(Slot[] slots, int count, ArrayList spans, int[][] sizes,
+            double[] weights, boolean horizontal) {
+        int updated = 0;
+        for (int i = 0; i < count; i++) {
+            Slot slot = slots[i];
+            if (slot.dirty) {
+                updateSlot(slot, horizontal);
+                updated++;
+            }
+        }
+        // the sizes a spanning cell spreads depend on all those it spans
+        // (and those they depend on), so they must all be spread again;
+        // spans not reaching them are left as they are
+        boolean marked = true;
+        while (marked) {
+            marked = false;
+            for (int i = 0, n = spans.size(); i < n; i++) {
+                Cell cell = (Cell)spans.get(i);
+                int first = horizontal ? cell.x : cell.y;
+                int span = horizontal ? cell.w : cell.h;
+                int dirty = 0;
+                for (int j = first + span; --j >= first; ) {
+                    if (slots[j].dirty) dirty++;
+                }
+                if (dirty > 0 && dirty < span) {
+                    mark(slots, first, span);
+                    marked = true;
+                }
+            }
+        }
+        int[] mins = sizes[MIN];
+        int[] prefs = sizes[PREF];
+        for (int i = 0; i < count; i++) {
+            Slot slot = slots[i];
+            if (slot.dirty) {
+                mins[i] = slot.min;
+                prefs[i] = slot.pref;
+                weights[i] = slot.weight;
+            }
+        }
+        // in order of increasing span, as GridBagLayout does
+        for (int i = 0, n = spans.size(); i < n; i++) {
+            Cell cell = (Cell)spans.get(i);
+            if (!cell.visible) continue;
+            if (horizontal) {
+                if (!slots[cell.x].dirty) continue;
+                int extra = cell.c.ipadx + hinsets(cell.c);
+                spreadWeight(weights, cell.x, cell.w, cell.c.weightx);
+                spread(mins, weights, cell.x, cell.w, cell.minw + extra);
+                spread(prefs, weights, cell.x, cell.w, cell.prefw + extra);
+            } else {
+                if (!slots[cell.y].dirty) continue;
+                int extra = cell.c.ipady + vinsets(cell.c);
+                spreadWeight(weights, cell.y, cell.h, cell.c.weighty);
+                spread(mins, weights, cell.y, cell.h, cell.minh + extra);
+                spread(prefs, weights, cell.y, cell.h, cell.prefh + extra);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            slots[i].dirty = false;
+        }
+        return updated;
+    }
+
+    private static void updateSlot(Slot slot, boolean horizontal) {
+        int min = 0;
+        int pref = 0;
+        double weight = 0;
+        ArrayList scells = slot.cells;
+        for (int i = 0, n = scells.size(); i < n; i++) {
+            Cell cell = (Cell)scells.get(i);
+            if (!cell.visible) continue;
+            GridBagConstraints c = cell.c;
+            if (horizontal) {
+                int extra = c.ipadx + hinsets(c);
+                min = Math.max(min, cell.minw + extra);
+                pref = Math.max(pref, cell.prefw + extra);
+                weight = Math.max(weight, c.weightx);
+            } else {
+                int extra = c.ipady + vinsets(c);
+                min = Math.max(min, cell.minh + extra);
+                pref = Math.max(pref, cell.prefh + extra);
+                weight = Math.max(weight, c.weighty);
+            }
+        }
+        slot.min = min;
+        slot.pref = pref;
+        slot.weight = weight;
+    }
+
+    // make sure the spanned sizes add up to at least required; any shortfall
+    // is distributed by weight, with the remainder going to the last spanned
+    // slot (as GridBagLayout does).
+    private static void spread(int[] sizes, double[] weights, int first, int count, int required) {
+        int end = first + count;
+        int shortfall = required;
+        double weight = 0;
+        for (int i = first; i < end; i++) {
+            shortfall -= sizes[i];
+            weight += weights[i];
+        }
+        if (shortfall <= 0) return;
+        for (int i = first; weight > 0 && i < end; i++) {
+            double wt = weights[i];
+            int dx = (int)(wt * shortfall / weight);
+            sizes[i] += dx;
+            shortfall -= dx;
+            weight -= wt;
+        }
+        sizes[end - 1] += shortfall;
+    }
+
+    // likewise for the weight of a spanning cell, over and above that already
+    // assigned to the slots it spans. This is applied before the cell's sizes
+    // are spread, so they're distributed by the updated weights.
+    private static void spreadWeight(double[] weights, int first, int count, double weight) {
+        int end = first + count;
+        double existing = 0;
+        for (int i = first; i < end; i++) {
+            weight -= weights[i];
+            existing += weights[i];
+        }
+        if (weight <= 0) return;
+        for (int i = first; existing > 0 && i < end; i++) {
+            double wt = weights[i];
+            double dx = wt * weight / existing;
+            weights[i] += dx;
+            weight -= dx;
+            existing -= wt;
+        }
+        weights[end - 1] += weight;
+    }
+
+    private Dimension layoutSize(Container parent, int which) {
+        int w = 0;
+        int h = 0;
+        int[] cols = colSizes[which];
+        int[] rows = rowSizes[which];
+        for (int i = ncols; --i >= 0; ) w += cols[i];
+        for (int i = nrows; --i >= 0; ) h += rows[i];
+        Insets pin = parent.getInsets();
+        return new Dimension(w + pin.left + pin.right, h + pin.top + pin.bottom);
+    }
+
+    // size the columns (or rows) for the available space, distributing any
+    // difference by weight
+    static int[] distribute(int[] sizes, double[] weights, int count, int available) {
+        int[] result = new int[count];
+        System.arraycopy(sizes, 0, result, 0, count);
+        int diff = available;
+        double weight = 0;
+        for (int i = 0; i < count; i++) {
+            diff -= sizes[i];
+            weight += weights[i];
+        }
+        if (diff != 0 && weight > 0) {
+            for (int i = 0; i < count; i++) {
+                int size = result[i] + (int)(diff * weights[i] / weight);
+                result[i] = size < 0 ? 0 : size;
+            }
+        }
+        return result;
+    }
+
+    // cumulative offsets (count + 1 entries); any space not taken up (or any
+    // overflow) is split evenly on either side, as with GridBagLayout.
+    static int[] offsets(int[] sizes, int origin, int available) {
+        int count = sizes.length;
+        int total = 0;
+        for (int i = 0; i < count; i++) total += sizes[i];
+        int pos = origin + (available - total) / 2;
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = pos;
+            pos += sizes[i];
+        }
+        offsets[count] = pos;
+        return offsets;
+    }
+
+    // place a component within its display area (x, y, w, h), honoring its
+    // insets, ipad, fill and anchor; basew/baseh are its min or pref size.
+    // also used by VirtualRows.
+    static void place(Component comp, GridBagConstraints c, int basew, int baseh,
+            int x, int y, int w, int h, boolean ltr) {
+        Insets in = c.insets;
+        if (in != null) {
+            x += ltr ? in.left : in.right;
+            y += in.top;
+            w -= in.left + in.right;
+            h -= in.top + in.bottom;
+        }
+        int cw = Math.min(basew + c.ipadx, w);
+        int ch = Math.min(baseh + c.ipady, h);
+        int fill = c.fill;
+        if (fill == GridBagConstraints.BOTH || fill == GridBagConstraints.HORIZONTAL) {
+            cw = w;
+        }
+        if (fill == GridBagConstraints.BOTH || fill == GridBagConstraints.VERTICAL) {
+            ch = h;
+        }
+        int dx = w - cw;
+        int dy = h - ch;
+        switch (absoluteAnchor(c.anchor, ltr)) {
+        case GridBagConstraints.NORTH:     x += dx / 2;             break;
+        case GridBagConstraints.NORTHEAST: x += dx;                 break;
+        case GridBagConstraints.EAST:      x += dx;     y += dy / 2; break;
+        case GridBagConstraints.SOUTHEAST: x += dx;     y += dy;     break;
+        case GridBagConstraints.SOUTH:     x += dx / 2; y += dy;     break;
+        case GridBagConstraints.SOUTHWEST:              y += dy;     break;
+        case GridBagConstraints.WEST:                   y += dy / 2; break;
+        case GridBagConstraints.NORTHWEST:                           break;
+        default:                           x += dx / 2; y += dy / 2; break;
+        }
+        // as with GridBagLayout, don't place components outside the container
+        if (x < 0) {
+            cw += x;
+            x = 0;
+        }
+        if (y < 0) {
+            ch += y;
+            y = 0;
+        }
+        if (cw <= 0 || ch <= 0) {
+            comp.setBounds(0, 0, 0, 0);
+        } else {
+            comp.setBounds(x, y, cw, ch);
+        }
+    }
+
+    // map orientation-relative (and baseline) anchors to absolute ones
+    private static int absoluteAnchor(int anchor, boolean ltr) {
+        switch (anchor) {
+        case GridBagConstraints.PAGE_START:
+        case ABOVE_BASELINE:
+            return GridBagConstraints.NORTH;
+        case GridBagConstraints.PAGE_END:
+        case BELOW_BASELINE:
+            return GridBagConstraints.SOUTH;
+        case GridBagConstraints.LINE_START:
+        case BASELINE_LEADING:
+            return ltr ? GridBagConstraints.WEST : GridBagConstraints.EAST;
+        case GridBagConstraints.LINE_END:
+        case BASELINE_TRAILING:
+            return ltr ? GridBagConstraints.EAST : GridBagConstraints.WEST;
+        case GridBagConstraints.FIRST_LINE_START:
+        case ABOVE_BASELINE_LEADING:
+            return ltr ? GridBagConstraints.NORTHWEST : GridBagConstraints.NORTHEAST;
+        case GridBagConstraints.FIRST_LINE_END:
+        case ABOVE_BASELINE_TRAILING:
+            return ltr ? GridBagConstraints.NORTHEAST : GridBagConstraints.NORTHWEST;
+        case GridBagConstraints.LAST_LINE_START:
+        case BELOW_BASELINE_LEADING:
+            return ltr ? GridBagConstraints.SOUTHWEST : GridBagConstraints.SOUTHEAST;
+        case GridBagConstraints.LAST_LINE_END:
+        case BELOW_BASELINE_TRAILING:
+            return ltr ? GridBagConstraints.SOUTHEAST : GridBagConstraints.SOUTHWEST;
+        }
+        return anchor;
+    }
+
+    static int hinsets(GridBagConstraints c) {
+        Insets in;
+        return (in = c.insets) == null ? 0 : in.left + in.right;
+    }
+
+    static int vinsets(GridBagConstraints c) {
+        Insets in;
+        return (in = c.insets) == null ? 0 : in.top + in.bottom;
+    }
+
+    private static final class Cell {
+        final Component comp;
+        GridBagConstraints c;
+        // resolved position and span
+        int x, y, w = 1, h = 1;
+        // cached component sizes
+        int minw, minh, prefw, prefh;
+        boolean visible;
+        boolean sizeDirty = true;
+
+        Cell(Component comp, GridBagConstraints c) {
+            this.comp = comp;
+            this.c = c;
+        }
+    }
+
+    // a row or column
+    private static final class Slot {
+        final ArrayList cells = new ArrayList();
+        int min;
+        int pref;
+        double weight;
+        boolean dirty = true;
+    }
+
+}
@@ -0,0 +1,249 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counts and times the work done by a GridTable: constraint hash parsing
+ * (every setHashedValues call, whether for a constraint cache miss or for
+ * setDefaults), addRow calls, components added, and layout and validate passes.
+ * <p>
+ * Metrics are off by default, and cost nothing beyond a null check when
+ * off. They may be turned on for all tables created thereafter with
+ * <code>GridTableMetrics.setEnabled(true)</code> (or the system property
+ * <code>cheri.gridtable.metrics=true</code>), or for a single table with
+ * <code>GridTable#setMetricsEnabled</code>. Each table's metrics are
+ * registered as an MBean (<code>org.cheri:type=GridTable,name=...,id=n</code>,
+ * the id keeping the names of like-named tables unique) while the table is
+ * displayable.
+ * <p>
+ * The metrics of tables built by Cheri are also added to the totals for
+ * their runtime (see GridTable#setMetricsTotals), which are kept by its
+ * RuntimeResources, available from Ruby via
+ * RuntimeResources#getGridTableMetrics, and registered (as
+ * <code>name=totals,id=n</code>) once any table's metrics are added to them
+ * until the runtime is torn down.
+ */
+public class GridTableMetrics implements GridTableMetricsMBean {
+
+    private static final String TYPE = "org.cheri:type=GridTable,name=";
+
+    private static volatile boolean enabled = Boolean.getBoolean("cheri.gridtable.metrics");
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        GridTableMetrics.enabled = enabled;
+    }
+
+    private final int id = SEQUENCE.incrementAndGet();
+    // the totals these metrics are added to, if any
+    private GridTableMetrics totals;
+    private ObjectName objectName;
+
+    private long hashedValuesCount;
+    private long hashedValuesTime;
+    private long addRowCount;
+    private long addRowTime;
+    private long componentsAdded;
+    private long layoutCount;
+    private long layoutTime;
+    private long validateCount;
+    private long validateTime;
+
+    /**
+     * Creates metrics not added to any totals, as for the totals themselves.
+     */
+    public GridTableMetrics() {
+    }
+
+    GridTableMetrics(GridTableMetrics totals) {
+        setTotals(totals);
+    }
+
+    // metrics recorded from now on are added to totals (null for none)
+    synchronized void setTotals(GridTableMetrics totals) {
+        if (totals == this) throw new IllegalArgumentException("metrics can't total themselves");
+        this.totals = totals;
+        if (totals != null) {
+            totals.register("totals");
+        }
+    }
+
+    //
+    // recording, called by GridTable (and its ConstraintCache)
+    //
+
+    synchronized void hashedValues(long nanos) {
+        hashedValuesCount++;
+        hashedValuesTime += nanos;
+        if (totals != null) totals.hashedValues(nanos);
+    }
+
+    synchronized void rowAdded(long nanos) {
+        addRowCount++;
+        addRowTime += nanos;
+        if (totals != null) totals.rowAdded(nanos);
+    }
+
+    synchronized void componentAdded() {
+        componentsAdded++;
+        if (totals != null) totals.componentAdded();
+    }
+
+    synchronized void layout(long nanos) {
+        layoutCount++;
+        layoutTime += nanos;
+        if (totals != null) totals.layout(nanos);
+    }
+
+    synchronized void validated(long nanos) {
+        validateCount++;
+        validateTime += nanos;
+        if (totals != null) totals.validated(nanos);
+    }
+
+    //
+    // JMX registration
+    //
+
+    synchronized void register(String name) {
+        if (objectName != null) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = new ObjectName(TYPE + quote(name) + ",id=" + id);
+            server.registerMBean(this, on);
+            objectName = on;
+        } catch (JMException e) {
+            // the id makes the name unique, so this shouldn't happen
+            throw new IllegalStateException("unable to register GridTable metrics '" + name + "'", e);
+        } catch (SecurityException e) {
+            // not permitted (applet, etc.); the metrics are still readable
+        }
+    }
+
+    // quote names only if they need it
+    private static String quote(String name) {
+        for (int i = name.length(); --i >= 0; ) {
+            if (",=:\"*?\n".indexOf(name.charAt(i)) >= 0) {
+                return ObjectName.quote(name);
+            }
+        }
+        return name;
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+        } catch (SecurityException e) {
+        }
+        objectName = null;
+    }
+
+    //
+    // GridTableMetricsMBean
+    //
+
+    public synchronized long getHashedValuesCount() {
+        return hashedValuesCount;
+    }
+
+    public synchronized long getHashedValuesTime() {
+        return hashedValuesTime;
+    }
+
+    public synchronized long getAddRowCount() {
+        return addRowCount;
+    }
+
+    public synchronized long getAddRowTime() {
+        return addRowTime;
+    }
+
+    public synchronized long getComponentsAdded() {
+        return componentsAdded;
+    }
+
+    public synchronized long getLayoutCount() {
+        return layoutCount;
+    }
+
+    public synchronized long getLayoutTime() {
+        return layoutTime;
+    }
+
+    public synchronized long getValidateCount() {
+        return validateCount;
+    }
+
+    public synchronized long getValidateTime() {
+        return validateTime;
+    }
+
+    public synchronized void reset() {
+        hashedValuesCount = 0;
+        hashedValuesTime = 0;
+        addRowCount = 0;
+        addRowTime = 0;
+        componentsAdded = 0;
+        layoutCount = 0;
+        layoutTime = 0;
+        validateCount = 0;
+        validateTime = 0;
+    }
+
+    /**
+     * Returns a snapshot of these metrics, keyed by name (hashed_values_count,
+     * hashed_values_time, etc.; times are in nanoseconds).
+     */
+    public synchronized Map toMap() {
+        Map map = new LinkedHashMap();
+        map.put("hashed_values_count", new Long(hashedValuesCount));
+        map.put("hashed_values_time", new Long(hashedValuesTime));
+        map.put("add_row_count", new Long(addRowCount));
+        map.put("add_row_time", new Long(addRowTime));
+        map.put("components_added", new Long(componentsAdded));
+        map.put("layout_count", new Long(layoutCount));
+        map.put("layout_time", new Long(layoutTime));
+        map.put("validate_count", new Long(validateCount));
+        map.put("validate_time", new Long(validateTime));
+        return map;
+    }
+
+}
@@ -0,0 +1,239 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.Component;
+import java.awt.GridBagConstraints;
+import java.util.ArrayList;
+
+/**
+ * Tracks the cells of a GridTable that occupy more than one row, as column
+ * and row intervals, so that GridTable can find the next free column in a
+ * row without scanning (and decrementing) a per-column array on every row.
+ * Cells of the row being added are tracked separately until endRow.
+ * <p>
+ * Spans keep their component and constraints, so that when rows are
+ * inserted or removed, spans crossing them can be stretched or shrunk, and
+ * the affected constraints updated. So all spans are kept, but rows being
+ * appended are only checked against the spans that reach them; those that
+ * end above the next row are dropped from that list by endRow.
+ */
+final class Occupancy {
+
+    // open-ended spans (gridheight REMAINDER or RELATIVE) never end
+    private static final int OPEN = Integer.MAX_VALUE;
+
+    private final ArrayList spans = new ArrayList();
+    // the spans that may reach liveRow or below; all those that do are here
+    private final ArrayList live = new ArrayList();
+    // the row after the last one ended (in appending order)
+    private int liveRow;
+    // first/last column pairs for the row being added
+    private int[] rowCols = new int[16];
+    private int nrowCols;
+
+    boolean isFilled(int col, int row) {
+        int[] cols = rowCols;
+        for (int i = nrowCols; (i -= 2) >= 0; ) {
+            if (col >= cols[i] && col <= cols[i + 1]) return true;
+        }
+        ArrayList spans = row >= liveRow ? live : this.spans;
+        for (int i = spans.size(); --i >= 0; ) {
+            Span span = (Span)spans.get(i);
+            if (row >= span.firstRow && row < span.endRow &&
+                    col >= span.firstCol && col <= span.lastCol) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a cell occupying columns first to last, starting at row; rows
+     * is the number of rows, or <= 0 for a cell that extends to the end.
+     */
+    void fill(int first, int last, int row, int rows, Component comp, GridBagConstraints c) {
+        if (rows == 1) {
+            if (nrowCols + 2 > rowCols.length) {
+                int[] cols = new int[rowCols.length << 1];
+                System.arraycopy(rowCols, 0, cols, 0, nrowCols);
+                rowCols = cols;
+            }
+            rowCols[nrowCols++] = first;
+            rowCols[nrowCols++] = last;
+        } else {
+            Span span = new Span(first, last, row, rows <= 0 ? OPEN : row + rows, comp, c);
+            spans.add(span);
+            if (span.endRow > liveRow) live.add(span);
+        }
+    }
+
+    void endRow(int row) {
+        nrowCols = 0;
+        if (row >= liveRow) {
+            liveRow = row + 1;
+            pruneLive();
+        }
+    }
+
+    // drops the spans that end at or above liveRow from the live list
+    private void pruneLive() {
+        ArrayList live = this.live;
+        int liveRow = this.liveRow;
+        int n = live.size();
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            Span span = (Span)live.get(i);
+            if (span.endRow > liveRow) {
+                if (j != i) live.set(j, span);
+                j++;
+            }
+        }
+        for (int i = n; --i >= j; ) {
+            live.remove(i);
+        }
+    }
+
+    /**
+     * Shifts spans down for a row inserted at row; returns the spans that
+     * now cross the new row, whose gridheight has been incremented.
+     */
+    ArrayList insertRow(int row) {
+        // spans below shift down with the rows, so the live ones stay live
+        if (row < liveRow) liveRow++;
+        ArrayList stretched = new ArrayList();
+        for (int i = spans.size(); --i >= 0; ) {
+            Span span = (Span)spans.get(i);
+            if (span.firstRow >= row) {
+                span.firstRow++;
+                if (span.endRow != OPEN) span.endRow++;
+            } else if (row < span.endRow && span.endRow != OPEN) {
+                span.endRow++;
+                span.c.gridheight++;
+                stretched.add(span);
+            }
+        }
+        return stretched;
+    }
+
+    /**
+     * Drops spans starting at row (the cells of which are being removed),
+     * and shifts up those below it; returns the spans that crossed the row,
+     * whose gridheight has been decremented.
+     */
+    ArrayList removeRow(int row) {
+        removeCells(row);
+        if (row < liveRow) liveRow--;
+        ArrayList shrunk = new ArrayList();
+        for (int i = spans.size(); --i >= 0; ) {
+            Span span = (Span)spans.get(i);
+            if (span.firstRow > row) {
+                span.firstRow--;
+                if (span.endRow != OPEN) span.endRow--;
+            } else if (row < span.endRow && span.endRow != OPEN) {
+                span.endRow--;
+                span.c.gridheight--;
+                shrunk.add(span);
+            }
+        }
+        return shrunk;
+    }
+
+    // drops (and returns) the spans of cells starting at row, as when it is
+    // replaced
+    ArrayList removeCells(int row) {
+        ArrayList removed = new ArrayList();
+        for (int i = spans.size(); --i >= 0; ) {
+            if (((Span)spans.get(i)).firstRow == row) {
+                removed.add(spans.remove(i));
+            }
+        }
+        for (int i = live.size(); --i >= 0; ) {
+            if (((Span)live.get(i)).firstRow == row) {
+                live.remove(i);
+            }
+        }
+        return removed;
+    }
+
+    // puts back spans returned by removeCells
+    void addSpans(ArrayList removed) {
+        for (int i = removed.size(); --i >= 0; ) {
+            Span span = (Span)removed.get(i);
+            spans.add(span);
+            if (span.endRow > liveRow) live.add(span);
+        }
+    }
+
+    // abandons the row being added (at row), dropping the cells recorded
+    // for it so far
+    void cancelRow(int row) {
+        nrowCols = 0;
+        removeCells(row);
+    }
+
+    // drops the span of a cell removed on its own
+    void removeCell(Component comp) {
+        for (int i = spans.size(); --i >= 0; ) {
+            if (((Span)spans.get(i)).comp == comp) {
+                spans.remove(i);
+                break;
+            }
+        }
+        for (int i = live.size(); --i >= 0; ) {
+            if (((Span)live.get(i)).comp == comp) {
+                live.remove(i);
+                break;
+            }
+        }
+    }
+
+    void clear() {
+        spans.clear();
+        live.clear();
+        liveRow = 0;
+        nrowCols = 0;
+    }
+
+    static final class Span {
+        final int firstCol;
+        final int lastCol;
+        int firstRow;
+        int endRow;
+        final Component comp;
+        final GridBagConstraints c;
+
+        Span(int firstCol, int lastCol, int firstRow, int endRow, Component comp, GridBagConstraints c) {
+            this.firstCol = firstCol;
+            this.lastCol = lastCol;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+            this.comp = comp;
+            this.c = c;
+        }
+    }
+
+}
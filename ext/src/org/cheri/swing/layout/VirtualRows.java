@@ -0,0 +1,478 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GridBagConstraints;
+import java.awt.Insets;
+import java.awt.LayoutManager;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * The layout used by a GridTable with a row supplier (see
+ * GridTable#setRowSupplier). Rows are obtained from the supplier only when
+ * they intersect the table's visible rectangle (normally that of the
+ * enclosing JViewport), and rows that scroll out of view are offered back to
+ * the supplier for reuse, so the number of components is proportional to
+ * the number of visible rows, rather than to the total.
+ * <p>
+ * All rows have the same height: either a fixed height, or that of the
+ * tallest row realized so far. Column widths are likewise the widest
+ * realized so far, and are shared by all rows, so columns line up however
+ * far the table is scrolled; if a wider (or taller) row scrolls into view,
+ * the table is revalidated. Cells may span columns, including RELATIVE and
+ * REMAINDER, but not rows (gridheight is ignored). Any extra width is
+ * distributed by weightx, as with GridBagLayout; extra height is left
+ * below the last row.
+ */
+final class VirtualRows implements LayoutManager, ChangeListener {
+
+    private final GridTable table;
+    private final GridRowSupplier supplier;
+    private int rowCount;
+    private int fixedRowHeight;
+
+    // realized rows, keyed by index, and rows available for reuse
+    private final HashMap realized = new HashMap();
+    private final ArrayList pool = new ArrayList();
+    private int first;
+    private int last = -1;
+
+    // shared column widths/weights and (measured) row height; these only grow
+    private int[] colWidths = new int[8];
+    private double[] colWeights = new double[8];
+    private int ncols;
+    private int rowHeight;
+    private boolean grown;
+
+    private JViewport viewport;
+
+    // statistics
+    private long rowsRealized;
+    private long rowsRecycled;
+
+    VirtualRows(GridTable table, GridRowSupplier supplier, int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("GridTable: row count must be >= 0");
+        }
+        this.table = table;
+        this.supplier = supplier;
+        this.rowCount = rowCount;
+    }
+
+    GridRowSupplier getSupplier() {
+        return supplier;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    void setRowCount(int rowCount) {
+        if (rowCount < 0) {
+            throw new IllegalArgumentException("GridTable: row count must be >= 0");
+        }
+        this.rowCount = rowCount;
+        // rows beyond the new count are released on the next pass
+        reset();
+    }
+
+    int getRowHeight() {
+        return fixedRowHeight > 0 ? fixedRowHeight : rowHeight;
+    }
+
+    void setFixedRowHeight(int height) {
+        fixedRowHeight = Math.max(height, 0);
+    }
+
+    int getFixedRowHeight() {
+        return fixedRowHeight;
+    }
+
+    int getRealizedRowCount() {
+        return realized.size();
+    }
+
+    long getRowsRealized() {
+        return rowsRealized;
+    }
+
+    long getRowsRecycled() {
+        return rowsRecycled;
+    }
+
+    // re-request the visible rows, e.g. after the data behind them changes
+    void refresh() {
+        for (Iterator iter = realized.values().iterator(); iter.hasNext(); ) {
+            release((Slot)iter.next());
+            iter.remove();
+        }
+        reset();
+    }
+
+    private void reset() {
+        first = 0;
+        last = -1;
+    }
+
+    //
+    // viewport tracking
+    //
+
+    void attach() {
+        JViewport vp = (JViewport)SwingUtilities.getAncestorOfClass(JViewport.class, table);
+        if (vp != viewport) {
+            detach();
+            if ((viewport = vp) != null) {
+                vp.addChangeListener(this);
+            }
+        }
+    }
+
+    void detach() {
+        if (viewport != null) {
+            viewport.removeChangeListener(this);
+            viewport = null;
+        }
+    }
+
+    // the view has scrolled (or been resized); lay out again only if the
+    // visible rows have changed
+    public void stateChanged(ChangeEvent e) {
+        int h;
+        if ((h = getRowHeight()) == 0) return;
+        Rectangle vis = table.getVisibleRect();
+        int top = vis.y - table.getInsets().top;
+        if (firstRow(top, h) != first || lastRow(top, vis.height, h) != last) {
+            table.invalidate();
+            table.validate();
+            table.repaint();
+        }
+    }
+
+    private static int firstRow(int top, int h) {
+        return Math.max(top / h, 0);
+    }
+
+    private int lastRow(int top, int height, int h) {
+        return height <= 0 ? -1 : Math.min((top + height - 1) / h, rowCount - 1);
+    }
+
+    //
+    // LayoutManager
+    //
+
+    public void addLayoutComponent(String name, Component comp) {
+    }
+
+    public void removeLayoutComponent(Component comp) {
+    }
+
+    public Dimension preferredLayoutSize(Container parent) {
+        synchronized (parent.getTreeLock()) {
+            measureFirst();
+            Insets in = parent.getInsets();
+            int width = 0;
+            for (int i = 0; i < ncols; i++) {
+                width += colWidths[i];
+            }
+            return new Dimension(width + in.left + in.right,
+                    rowCount * getRowHeight() + in.top + in.bottom);
+        }
+    }
+
+    public Dimension minimumLayoutSize(Container parent) {
+        synchronized (parent.getTreeLock()) {
+            Dimension d = preferredLayoutSize(parent);
+            Insets in = parent.getInsets();
+            d.height = Math.min(rowCount, 1) * getRowHeight() + in.top + in.bottom;
+            return d;
+        }
+    }
+
+    public void layoutContainer(Container parent) {
+        synchronized (parent.getTreeLock()) {
+            sync();
+            Insets in = parent.getInsets();
+            int width = parent.getWidth() - in.left - in.right;
+            int[] xs = GridTableLayout.offsets(
+                    GridTableLayout.distribute(colWidths, colWeights, ncols, width), in.left, width);
+            int h = getRowHeight();
+            boolean ltr = parent.getComponentOrientation().isLeftToRight();
+            int pwidth = parent.getWidth();
+            for (Iterator iter = realized.values().iterator(); iter.hasNext(); ) {
+                Slot slot = (Slot)iter.next();
+                int y = in.top + slot.index * h;
+                for (int i = 0; i < slot.count; i++) {
+                    int col = Math.min(slot.cols[i], ncols - 1);
+                    int span = Math.min(span(slot.spans[i], col), ncols - col);
+                    int x = xs[col];
+                    int w = xs[col + span] - x;
+                    if (!ltr) {
+                        x = pwidth - x - w;
+                    }
+                    GridTableLayout.place(slot.comps[i], slot.cons[i], slot.prefw[i], slot.prefh[i],
+                            x, y, w, h, ltr);
+                }
+            }
+        }
+        if (grown) {
+            // columns or rows have grown, so our preferred size has changed
+            grown = false;
+            table.revalidate();
+        }
+    }
+
+    //
+    // realizing rows
+    //
+
+    // without a fixed row height, we need at least one row to go on
+    private void measureFirst() {
+        if (getRowHeight() == 0 && rowCount > 0 && realized.isEmpty()) {
+            realize(0);
+        }
+    }
+
+    // bring the realized rows into line with the visible rectangle
+    private void sync() {
+        measureFirst();
+        int h;
+        if ((h = getRowHeight()) == 0) {
+            h = 1;
+        }
+        Rectangle vis = table.getVisibleRect();
+        int top = vis.y - table.getInsets().top;
+        int newFirst = firstRow(top, h);
+        int newLast = lastRow(top, vis.height, h);
+        if (newFirst == first && newLast == last) return;
+        for (Iterator iter = realized.values().iterator(); iter.hasNext(); ) {
+            Slot slot = (Slot)iter.next();
+            if (slot.index < newFirst || slot.index > newLast) {
+                release(slot);
+                iter.remove();
+            }
+        }
+        for (int i = newFirst; i <= newLast; i++) {
+            if (!realized.containsKey(new Integer(i))) {
+                realize(i);
+            }
+        }
+        first = newFirst;
+        last = newLast;
+        // don't hang on to more spare rows than we're showing
+        for (int i = pool.size(), max = realized.size(); i > max; ) {
+            Slot slot = (Slot)pool.remove(--i);
+            for (int j = 0; j < slot.count; j++) {
+                table.removeVirtual(slot.comps[j]);
+            }
+        }
+    }
+
+    private void realize(int index) {
+        Slot slot = pool.isEmpty() ? null : (Slot)pool.remove(pool.size() - 1);
+        GridRow recycled = slot == null ? null : slot.row;
+        GridRow row = supplier.getRow(index, recycled);
+        rowsRealized++;
+        if (slot == null) {
+            slot = new Slot();
+        } else if (row == recycled && row != null) {
+            rowsRecycled++;
+        }
+        bind(slot, row);
+        slot.index = index;
+        realized.put(new Integer(index), slot);
+    }
+
+    // hidden, rather than removed, as it will likely be reused shortly
+    private void release(Slot slot) {
+        for (int i = 0; i < slot.count; i++) {
+            slot.comps[i].setBounds(0, 0, 0, 0);
+        }
+        pool.add(slot);
+    }
+
+    private void bind(Slot slot, GridRow row) {
+        int oldCount = slot.count;
+        int n = row == null ? 0 : row.count;
+        slot.row = row;
+        slot.ensureCapacity(n);
+        Component[] oldComps = slot.oldComps;
+        int count = 0;
+        if (n > 0) {
+            GridBagConstraints rowDefaults = table.getRowDefaults(row);
+            int col = 0;
+            for (int i = 0; i < n; i++) {
+                Component comp;
+                if ((comp = row.comps[i]) == null) continue;
+                GridBagConstraints c = table.getCellConstraints(rowDefaults, row.constraints[i]);
+                int x = c.gridx < 0 ? col : c.gridx;
+                int w = Math.max(c.gridwidth, GridBagConstraints.RELATIVE);
+                col = x + Math.max(w, 1);
+                slot.comps[count] = comp;
+                slot.cons[count] = c;
+                slot.cols[count] = x;
+                slot.spans[count] = w;
+                count++;
+            }
+        }
+        slot.count = count;
+        // swap out any components the supplier has replaced
+        for (int i = 0; i < oldCount; i++) {
+            Component comp = oldComps[i];
+            if (!slot.contains(comp)) {
+                table.removeVirtual(comp);
+            }
+            oldComps[i] = null;
+        }
+        for (int i = 0; i < count; i++) {
+            Component comp = slot.comps[i];
+            if (comp.getParent() != table) {
+                table.addVirtual(comp);
+            }
+        }
+        measure(slot);
+    }
+
+    private void measure(Slot slot) {
+        for (int i = 0; i < slot.count; i++) {
+            Component comp = slot.comps[i];
+            GridBagConstraints c = slot.cons[i];
+            int prefw = 0;
+            int prefh = 0;
+            if (comp.isVisible()) {
+                Dimension d = comp.getPreferredSize();
+                prefw = d.width;
+                prefh = d.height;
+            }
+            slot.prefw[i] = prefw;
+            slot.prefh[i] = prefh;
+            int height = prefh + c.ipady + GridTableLayout.vinsets(c);
+            if (height > rowHeight) {
+                rowHeight = height;
+                if (fixedRowHeight == 0) grown = true;
+            }
+            int col = slot.cols[i];
+            int span = span(slot.spans[i], col);
+            ensureCols(col + span);
+            widen(col, span, prefw + c.ipadx + GridTableLayout.hinsets(c), c.weightx);
+        }
+    }
+
+    // resolve RELATIVE/REMAINDER spans against the current column count
+    private int span(int span, int col) {
+        if (span > 0) return span;
+        return Math.max(ncols - col - (span == GridBagConstraints.RELATIVE ? 1 : 0), 1);
+    }
+
+    private void ensureCols(int count) {
+        if (count > colWidths.length) {
+            int size = colWidths.length << 1;
+            while (size < count) {
+                size <<= 1;
+            }
+            int[] widths = new int[size];
+            System.arraycopy(colWidths, 0, widths, 0, ncols);
+            colWidths = widths;
+            double[] weights = new double[size];
+            System.arraycopy(colWeights, 0, weights, 0, ncols);
+            colWeights = weights;
+        }
+        if (count > ncols) {
+            ncols = count;
+            grown = true;
+        }
+    }
+
+    // make the spanned columns at least as wide as required; any shortfall
+    // goes to the last of them
+    private void widen(int col, int span, int required, double weight) {
+        int end = col + span;
+        double spannedWeight = 0;
+        for (int i = col; i < end; i++) {
+            required -= colWidths[i];
+            spannedWeight += colWeights[i];
+        }
+        if (required > 0) {
+            colWidths[end - 1] += required;
+            grown = true;
+        }
+        if (span == 1) {
+            if (weight > colWeights[col]) {
+                colWeights[col] = weight;
+            }
+        } else if (spannedWeight == 0 && weight > 0) {
+            colWeights[end - 1] = weight;
+        }
+    }
+
+    private static final class Slot {
+        GridRow row;
+        int index;
+        int count;
+        Component[] comps = new Component[0];
+        Component[] oldComps = new Component[0];
+        GridBagConstraints[] cons = new GridBagConstraints[0];
+        int[] cols = new int[0];
+        int[] spans = new int[0];
+        int[] prefw = new int[0];
+        int[] prefh = new int[0];
+
+        // the old components are moved to oldComps, where bind compares
+        // them with the new ones (and clears them); the two arrays are
+        // swapped, so nothing is allocated unless the row has grown
+        void ensureCapacity(int n) {
+            Component[] old = comps;
+            comps = oldComps.length >= n ? oldComps : new Component[Math.max(n, old.length)];
+            oldComps = old;
+            if (n > cons.length) {
+                cons = new GridBagConstraints[n];
+                cols = new int[n];
+                spans = new int[n];
+                prefw = new int[n];
+                prefh = new int[n];
+            }
+        }
+
+        boolean contains(Component comp) {
+            for (int i = count; --i >= 0; ) {
+                if (comps[i] == comp) return true;
+            }
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that every name in the hand-written tables the index replaced
+ * (listed in awt-constants.txt and swing-constants.txt) still resolves,
+ * using the class lists in lib/cheri/builder/{awt,swing}/constants.rb.
+ */
+public class ConstantIndexTest {
+
+    @Test
+    public void awtResolvesTheOldTables() throws IOException {
+        assertResolves("awt");
+    }
+
+    @Test
+    public void swingResolvesTheOldTables() throws IOException {
+        assertResolves("swing");
+    }
+
+    private static void assertResolves(String toolkit) throws IOException {
+        ConstantIndex index = new ConstantIndex(classNames(toolkit),
+                ConstantIndexTest.class.getClassLoader());
+        List missing = new ArrayList();
+        List names = lines(new File("test/org/cheri/" + toolkit + "-constants.txt"));
+        for (int i = 0; i < names.size(); i++) {
+            if (index.get((String)names.get(i)) == null) {
+                missing.add(names.get(i));
+            }
+        }
+        assertTrue(toolkit + " constants no longer indexed: " + missing, missing.isEmpty());
+    }
+
+    // the words of the Index.new(%w(...)) list in the toolkit's constants.rb
+    private static String[] classNames(String toolkit) throws IOException {
+        List lines = lines(new File("../lib/cheri/builder/" + toolkit + "/constants.rb"));
+        List names = new ArrayList();
+        boolean in = false;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = (String)lines.get(i);
+            if (in) {
+                if (line.startsWith("))")) break;
+                names.add(line);
+            } else if (line.startsWith("Index = ")) {
+                in = true;
+            }
+        }
+        assertTrue("no class list in " + toolkit + "/constants.rb", !names.isEmpty());
+        return (String[])names.toArray(new String[names.size()]);
+    }
+
+    // trimmed, without blank lines or # comments
+    private static List lines(File file) throws IOException {
+        List lines = new ArrayList();
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.length() > 0 && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return lines;
+    }
+
+}
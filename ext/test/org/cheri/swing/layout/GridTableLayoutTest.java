@@ -0,0 +1,232 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.LayoutManager2;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that GridTableLayout sizes and places components as GridBagLayout
+ * does for the same constraints, in particular where spanning cells
+ * overlap (GridBagLayout sizes them in order of increasing span).
+ */
+public class GridTableLayoutTest {
+
+    // cell (0,0) spanning 3 columns, cell (0,1) spanning 2, then three
+    // single cells: the 2-span must be sized before the 3-span
+    @Test
+    public void overlappingColumnSpans() {
+        Object[][] cells = {
+            { box(300, 10), cell(0, 0, 3, 1, 0, 0) },
+            { box(150, 10), cell(0, 1, 2, 1, 0, 0) },
+            { box(10, 10), cell(0, 2, 1, 1, 0, 0) },
+            { box(10, 10), cell(1, 2, 1, 1, 0, 0) },
+            { box(10, 10), cell(2, 2, 1, 1, 0, 0) },
+        };
+        Dimension pref = assertSameLayout(cells);
+        assertEquals(300, pref.width);
+    }
+
+    @Test
+    public void overlappingRowSpans() {
+        Object[][] cells = {
+            { box(10, 300), cell(0, 0, 1, 3, 0, 0) },
+            { box(10, 150), cell(1, 0, 1, 2, 0, 0) },
+            { box(10, 10), cell(2, 0, 1, 1, 0, 0) },
+            { box(10, 10), cell(2, 1, 1, 1, 0, 0) },
+            { box(10, 10), cell(2, 2, 1, 1, 0, 0) },
+        };
+        Dimension pref = assertSameLayout(cells);
+        assertEquals(300, pref.height);
+    }
+
+    // spans added widest first, with weights on the spanning cells only
+    @Test
+    public void weightedOverlappingSpans() {
+        Object[][] cells = {
+            { box(400, 20), cell(0, 0, 4, 1, 1.0, 0) },
+            { box(90, 20), cell(1, 1, 3, 1, 0.5, 0) },
+            { box(60, 20), cell(0, 2, 2, 1, 0.2, 1.0) },
+            { box(25, 20), cell(0, 3, 1, 1, 0, 0) },
+            { box(35, 20), cell(3, 3, 1, 2, 0, 0.5) },
+            { box(15, 50), cell(1, 4, 2, 1, 0, 0) },
+        };
+        assertSameLayout(cells);
+    }
+
+    // a cell whose size changes recomputes only its own row or column, and
+    // those linked to it by spanning cells: here, columns 2 and 3 (by the
+    // cell at (2,1)), while columns 0 and 1 and the rows are left alone
+    @Test
+    public void changedCellsUpdateOnlyTheirSlots() {
+        Object[][] cells = {
+            { box(40, 20), cell(0, 0, 2, 1, 0, 0) },
+            { box(30, 20), cell(2, 0, 1, 1, 0, 0) },
+            { box(30, 20), cell(3, 0, 1, 1, 0.5, 0) },
+            { box(10, 20), cell(0, 1, 1, 1, 0, 0) },
+            { box(10, 20), cell(1, 1, 1, 1, 0, 0) },
+            { box(90, 20), cell(2, 1, 2, 1, 1.0, 0) },
+        };
+        Container gbl = container(new GridBagLayout(), cells);
+        Container gtl = container(new GridTableLayout(), cells);
+        assertSameLayout(gbl, gtl);
+        GridTableLayout layout = (GridTableLayout)gtl.getLayout();
+        long rows = layout.getRowUpdates();
+        long cols = layout.getColumnUpdates();
+
+        resize(gbl, gtl, 2, 70, 20);
+        assertEquals(140, assertSameLayout(gbl, gtl).width);
+        assertEquals(cols + 1, layout.getColumnUpdates());
+        assertEquals(rows, layout.getRowUpdates());
+
+        resize(gbl, gtl, 3, 10, 45);
+        assertEquals(65, assertSameLayout(gbl, gtl).height);
+        assertEquals(cols + 1, layout.getColumnUpdates());
+        assertEquals(rows + 1, layout.getRowUpdates());
+
+        // hidden, its column's weight no longer counts
+        gbl.getComponent(2).setVisible(false);
+        gtl.getComponent(2).setVisible(false);
+        assertSameLayout(gbl, gtl);
+    }
+
+    // the baseline anchors (whose values GridTableLayout copies, as they're
+    // Java 6 additions) are placed as their non-baseline equivalents
+    @Test
+    public void baselineAnchors() {
+        int[][] anchors = {
+            { GridBagConstraints.BASELINE_LEADING, GridBagConstraints.LINE_START },
+            { GridBagConstraints.BASELINE_TRAILING, GridBagConstraints.LINE_END },
+            { GridBagConstraints.ABOVE_BASELINE, GridBagConstraints.PAGE_START },
+            { GridBagConstraints.ABOVE_BASELINE_LEADING, GridBagConstraints.FIRST_LINE_START },
+            { GridBagConstraints.ABOVE_BASELINE_TRAILING, GridBagConstraints.FIRST_LINE_END },
+            { GridBagConstraints.BELOW_BASELINE, GridBagConstraints.PAGE_END },
+            { GridBagConstraints.BELOW_BASELINE_LEADING, GridBagConstraints.LAST_LINE_START },
+            { GridBagConstraints.BELOW_BASELINE_TRAILING, GridBagConstraints.LAST_LINE_END },
+        };
+        Component a = new Box(box(10, 10));
+        Component b = new Box(box(10, 10));
+        GridBagConstraints c = new GridBagConstraints();
+        for (int i = 0; i < anchors.length; i++) {
+            for (int ltr = 0; ltr < 2; ltr++) {
+                c.anchor = anchors[i][0];
+                GridTableLayout.place(a, c, 10, 10, 0, 0, 100, 100, ltr == 0);
+                c.anchor = anchors[i][1];
+                GridTableLayout.place(b, c, 10, 10, 0, 0, 100, 100, ltr == 0);
+                assertEquals("anchor " + anchors[i][0], b.getBounds(), a.getBounds());
+            }
+        }
+    }
+
+    // lays out the cells with both layouts, at their preferred size and at
+    // a larger one, checking that the sizes and bounds match
+    private static Dimension assertSameLayout(Object[][] cells) {
+        return assertSameLayout(container(new GridBagLayout(), cells),
+                container(new GridTableLayout(), cells));
+    }
+
+    private static Dimension assertSameLayout(Container gbl, Container gtl) {
+        Dimension pref = gbl.getPreferredSize();
+        assertEquals(pref, gtl.getPreferredSize());
+        assertEquals(gbl.getMinimumSize(), gtl.getMinimumSize());
+        assertSameBounds(gbl, gtl, pref.width, pref.height);
+        assertSameBounds(gbl, gtl, pref.width + 123, pref.height + 45);
+        return pref;
+    }
+
+    private static void assertSameBounds(Container gbl, Container gtl, int width, int height) {
+        gbl.setSize(width, height);
+        gtl.setSize(width, height);
+        gbl.doLayout();
+        gtl.doLayout();
+        for (int i = 0, n = gbl.getComponentCount(); i < n; i++) {
+            assertEquals("component " + i + " at " + width + "x" + height,
+                    gbl.getComponent(i).getBounds(), gtl.getComponent(i).getBounds());
+        }
+    }
+
+    private static Container container(LayoutManager2 layout, Object[][] cells) {
+        Container container = new Container();
+        container.setLayout(layout);
+        for (int i = 0; i < cells.length; i++) {
+            Dimension size = (Dimension)cells[i][0];
+            container.add(new Box(size), ((GridBagConstraints)cells[i][1]).clone());
+        }
+        return container;
+    }
+
+    private static void resize(Container gbl, Container gtl, int index, int width, int height) {
+        ((Box)gbl.getComponent(index)).setBoxSize(width, height);
+        ((Box)gtl.getComponent(index)).setBoxSize(width, height);
+    }
+
+    private static Dimension box(int width, int height) {
+        return new Dimension(width, height);
+    }
+
+    private static GridBagConstraints cell(int x, int y, int w, int h, double wx, double wy) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = x;
+        c.gridy = y;
+        c.gridwidth = w;
+        c.gridheight = h;
+        c.weightx = wx;
+        c.weighty = wy;
+        c.fill = GridBagConstraints.BOTH;
+        return c;
+    }
+
+    // a lightweight component of fixed (but changeable) size
+    private static final class Box extends Component {
+        private Dimension size;
+
+        Box(Dimension size) {
+            this.size = size;
+        }
+
+        void setBoxSize(int width, int height) {
+            size = new Dimension(width, height);
+            invalidate();
+        }
+
+        public Dimension getMinimumSize() {
+            return new Dimension(size);
+        }
+
+        public Dimension getPreferredSize() {
+            return new Dimension(size);
+        }
+    }
+
+}
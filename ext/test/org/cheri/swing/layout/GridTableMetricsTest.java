@@ -0,0 +1,106 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.JLabel;
+
+import org.jruby.Ruby;
+import org.jruby.RubyHash;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GridTableMetricsTest {
+
+    @Test
+    public void likeNamedTablesRegisterSeparately() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName("org.cheri:type=GridTable,name=form,*");
+        GridTableMetrics a = new GridTableMetrics();
+        GridTableMetrics b = new GridTableMetrics();
+        a.register("form");
+        b.register("form");
+        try {
+            assertEquals(2, server.queryNames(query, null).size());
+        } finally {
+            a.unregister();
+            b.unregister();
+        }
+        assertTrue(server.queryNames(query, null).isEmpty());
+    }
+
+    // setDefaults parses its hash every time; row defaults only on a
+    // constraint cache miss
+    @Test
+    public void everyHashParseIsCounted() {
+        Ruby runtime = Ruby.newInstance();
+        RubyHash hash = RubyHash.newHash(runtime);
+        hash.op_aset(runtime.newSymbol("wx"), runtime.newFloat(0.5));
+        GridTable table = new GridTable();
+        table.setMetricsEnabled(true);
+        table.setDefaults(hash);
+        table.setDefaults(hash);
+        assertEquals(2, table.getMetrics().getHashedValuesCount());
+        for (int i = 0; i < 2; i++) {
+            GridRow row = new GridRow(hash);
+            row.add(new JLabel());
+            table.addRow(row);
+        }
+        assertEquals(3, table.getMetrics().getHashedValuesCount());
+        assertEquals(1, table.getConstraintCacheMisses());
+    }
+
+    @Test
+    public void totalsAreSeparate() throws Exception {
+        GridTableMetrics totals1 = new GridTableMetrics();
+        GridTableMetrics totals2 = new GridTableMetrics();
+        try {
+            GridTableMetrics m1 = new GridTableMetrics(totals1);
+            GridTableMetrics m2 = new GridTableMetrics(totals2);
+            m1.rowAdded(10);
+            m1.rowAdded(10);
+            m2.rowAdded(5);
+            assertEquals(2, totals1.getAddRowCount());
+            assertEquals(20, totals1.getAddRowTime());
+            assertEquals(1, totals2.getAddRowCount());
+            // detached from its totals
+            m2.setTotals(null);
+            m2.rowAdded(5);
+            assertEquals(2, m2.getAddRowCount());
+            assertEquals(1, totals2.getAddRowCount());
+        } finally {
+            totals1.unregister();
+            totals2.unregister();
+        }
+        assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(
+                new ObjectName("org.cheri:type=GridTable,name=totals,*"), null).isEmpty());
+    }
+
+}
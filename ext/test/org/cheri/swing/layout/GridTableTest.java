@@ -0,0 +1,151 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.Component;
+import java.awt.GridBagConstraints;
+
+import javax.swing.JLabel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Row edits: a multi-row cell of an inserted (or replacing) row may not
+ * cover cells below it, and a component removed directly leaves nothing
+ * behind for later edits to renumber or stretch.
+ */
+public class GridTableTest {
+
+    // row 0: a, b; row 1: c, d
+    private final Component a = new JLabel("a");
+    private final Component b = new JLabel("b");
+    private final Component c = new JLabel("c");
+    private final Component d = new JLabel("d");
+
+    @Test
+    public void insertedRowSpanMayNotCoverCellsBelow() {
+        GridTable table = table(false);
+        Component e = new JLabel("e");
+        try {
+            table.insertRow(1, row(e, 2));
+            fail("cell spanning onto row 2 inserted");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertUnchanged(table);
+        // a REMAINDER height covers all the rows below
+        try {
+            table.insertRow(0, row(e, GridBagConstraints.REMAINDER));
+            fail("cell spanning to the end inserted");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertUnchanged(table);
+        // one that fits is fine
+        table.insertRow(2, row(e, 2));
+        assertEquals(3, table.getRowCount());
+        assertEquals(2, constraints(table, e).gridy);
+    }
+
+    @Test
+    public void replacingRowSpanMayNotCoverCellsBelow() {
+        GridTable table = table(false);
+        try {
+            table.replaceRow(0, row(new JLabel("e"), 2));
+            fail("cell spanning onto row 1 replaced");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        assertUnchanged(table);
+    }
+
+    @Test
+    public void removedSpanIsForgotten() {
+        GridTable table = table(true);
+        Component x = new JLabel("x");
+        table.addRow(row(x, 2));
+        table.remove(x);
+        // not renumbered back into the layout by an insert
+        table.insertRow(0, row(new JLabel("e"), 1));
+        GridTableLayout layout = (GridTableLayout)table.getLayout();
+        assertEquals(GridBagConstraints.RELATIVE, layout.getConstraints(x).gridy);
+        // and its columns are free again
+        Component f = new JLabel("f");
+        table.replaceRow(3, row(f, 1));
+        assertEquals(0, constraints(table, f).gridx);
+        assertEquals(3, constraints(table, f).gridy);
+    }
+
+    private GridTable table(boolean incremental) {
+        GridTable table = new GridTable();
+        table.setIncrementalLayout(incremental);
+        GridRow row = new GridRow();
+        row.add(a);
+        row.add(b);
+        table.addRow(row);
+        row = new GridRow();
+        row.add(c);
+        row.add(d);
+        table.addRow(row);
+        return table;
+    }
+
+    private void assertUnchanged(GridTable table) {
+        assertEquals(2, table.getRowCount());
+        assertEquals(4, table.getComponentCount());
+        Component[] comps = { a, b, c, d };
+        for (int i = 0; i < comps.length; i++) {
+            assertSame(comps[i], table.getComponent(i));
+            assertEquals(i / 2, constraints(table, comps[i]).gridy);
+            assertEquals(i % 2, constraints(table, comps[i]).gridx);
+        }
+    }
+
+    // as row defaults, which (like a hash of constraints) get the row's gridy
+    private static GridRow row(Component comp, int gridheight) {
+        GridRow row = new GridRow(cons(gridheight));
+        row.add(comp);
+        return row;
+    }
+
+    private static GridBagConstraints cons(int gridheight) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridheight = gridheight;
+        return c;
+    }
+
+    private static GridBagConstraints constraints(GridTable table, Component comp) {
+        if (table.isIncrementalLayout()) {
+            return ((GridTableLayout)table.getLayout()).getConstraints(comp);
+        }
+        return ((java.awt.GridBagLayout)table.getLayout()).getConstraints(comp);
+    }
+
+}
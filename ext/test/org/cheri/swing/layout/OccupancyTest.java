@@ -0,0 +1,110 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+import java.awt.Component;
+import java.awt.GridBagConstraints;
+import java.util.ArrayList;
+
+import javax.swing.JLabel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Spans that end above the row being appended are no longer checked for
+ * appended rows, but must still be found for rows laid out (inserted or
+ * replaced) above, and still be stretched or shrunk by row edits.
+ */
+public class OccupancyTest {
+
+    @Test
+    public void appendedRowsSkipEndedSpans() {
+        Occupancy occ = new Occupancy();
+        // column 0, rows 0-1
+        occ.fill(0, 0, 0, 2, comp(), cons(2));
+        occ.endRow(0);
+        assertTrue(occ.isFilled(0, 1));
+        occ.endRow(1);
+        assertFalse(occ.isFilled(0, 2));
+        // rows above the append point still see the span
+        assertTrue(occ.isFilled(0, 1));
+        assertFalse(occ.isFilled(1, 1));
+    }
+
+    @Test
+    public void openSpansAreKept() {
+        Occupancy occ = new Occupancy();
+        occ.fill(1, 2, 0, 0, comp(), cons(GridBagConstraints.REMAINDER));
+        for (int r = 0; r < 100; r++) {
+            occ.endRow(r);
+        }
+        assertTrue(occ.isFilled(2, 100));
+        assertFalse(occ.isFilled(0, 100));
+    }
+
+    @Test
+    public void endedSpansAreStretchedAndShrunk() {
+        Occupancy occ = new Occupancy();
+        GridBagConstraints c = cons(2);
+        occ.fill(0, 0, 0, 2, comp(), c);
+        for (int r = 0; r < 4; r++) {
+            occ.endRow(r);
+        }
+        ArrayList stretched = occ.insertRow(1);
+        assertEquals(1, stretched.size());
+        assertEquals(3, c.gridheight);
+        assertTrue(occ.isFilled(0, 2));
+        assertFalse(occ.isFilled(0, 3));
+        // an inserted row's span reaching below the append point is live
+        GridBagConstraints d = cons(5);
+        occ.fill(1, 1, 2, 5, comp(), d);
+        occ.endRow(2);
+        assertTrue(occ.isFilled(1, 6));
+        assertFalse(occ.isFilled(1, 7));
+
+        ArrayList shrunk = occ.removeRow(1);
+        assertEquals(1, shrunk.size());
+        assertEquals(2, c.gridheight);
+        // shifted up, not shrunk
+        assertEquals(5, d.gridheight);
+        assertTrue(occ.isFilled(1, 5));
+        assertFalse(occ.isFilled(1, 6));
+    }
+
+    private static Component comp() {
+        return new JLabel();
+    }
+
+    private static GridBagConstraints cons(int gridheight) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridheight = gridheight;
+        return c;
+    }
+
+}
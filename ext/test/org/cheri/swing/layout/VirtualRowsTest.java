@@ -0,0 +1,137 @@
+/***** BEGIN LICENSE BLOCK *****
+ * 
+ * Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining
+ * a copy of this software and associated documentation files (the
+ * "Software"), to deal in the Software without restriction, including
+ * without limitation the rights to use, copy, modify, merge, publish,
+ * distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ ***** END LICENSE BLOCK *****/
+
+package org.cheri.swing.layout;
+
+import java.awt.Dimension;
+import java.awt.Point;
+
+import javax.swing.JLabel;
+import javax.swing.JViewport;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a virtual GridTable keeps only the visible rows' components,
+ * whether the supplier reuses the rows it's offered or replaces them, and
+ * that it's revalidated when realized rows widen its columns.
+ */
+public class VirtualRowsTest {
+
+    @Test
+    public void recycledRowsKeepTheirComponents() {
+        GridTable table = scroll(new Supplier(true));
+        assertEquals(10, table.getComponentCount());
+        assertTrue(table.getRowsRecycled() > 0);
+    }
+
+    @Test
+    public void replacedRowsAreRemoved() {
+        GridTable table = scroll(new Supplier(false));
+        assertEquals(10, table.getComponentCount());
+        assertEquals(0, table.getRowsRecycled());
+    }
+
+    // with a fixed row height, a cell taller than those measured so far
+    // mustn't cancel the growth of the columns measured before it
+    @Test
+    public void widenedColumnsRevalidateWithFixedRowHeight() {
+        final Dimension[] sizes = { new Dimension(200, 10), new Dimension(10, 40) };
+        CountingTable table = new CountingTable();
+        table.setRowSupplier(new GridRowSupplier() {
+            public GridRow getRow(int index, GridRow recycled) {
+                JLabel label = new JLabel();
+                label.setPreferredSize(sizes[index]);
+                GridRow row = new GridRow();
+                row.add(label);
+                return row;
+            }
+        }, 2);
+        table.setRowHeight(50);
+        table.setSize(100, 100);
+        int width = table.getPreferredSize().width;
+        table.revalidations = 0;
+        table.doLayout();
+        assertEquals(2, table.getRealizedRowCount());
+        assertTrue(table.getPreferredSize().width > width);
+        assertEquals(1, table.revalidations);
+    }
+
+    // 1000 rows of 2 cells, 20 high, in a 100x100 view (so 5 are visible),
+    // scrolled down a row at a time, then a page at a time (nothing here is
+    // displayable, so validate does nothing; the layouts are run directly)
+    private static GridTable scroll(Supplier supplier) {
+        GridTable table = new GridTable();
+        table.setRowSupplier(supplier, 1000);
+        table.setRowHeight(20);
+        JViewport viewport = new JViewport();
+        viewport.setView(table);
+        viewport.setSize(100, 100);
+        viewport.doLayout();
+        table.doLayout();
+        for (int y = 20; y <= 200; y += 20) {
+            viewport.setViewPosition(new Point(0, y));
+            table.doLayout();
+        }
+        for (int y = 300; y <= 5000; y += 100) {
+            viewport.setViewPosition(new Point(0, y));
+            table.doLayout();
+        }
+        assertEquals(5, table.getRealizedRowCount());
+        return table;
+    }
+
+    private static final class CountingTable extends GridTable {
+        int revalidations;
+
+        public void revalidate() {
+            revalidations++;
+            super.revalidate();
+        }
+    }
+
+    private static final class Supplier implements GridRowSupplier {
+        private final boolean recycle;
+
+        Supplier(boolean recycle) {
+            this.recycle = recycle;
+        }
+
+        public GridRow getRow(int index, GridRow recycled) {
+            if (recycle && recycled != null) {
+                ((JLabel)recycled.getComponent(0)).setText("row " + index);
+                return recycled;
+            }
+            GridRow row = new GridRow();
+            row.add(new JLabel("row " + index));
+            row.add(new JLabel("value"));
+            return row;
+        }
+    }
+
+}
@@ -24,7 +24,9 @@
 
 require 'cheri/cheri'
 require 'cheri/builder/base'
+require 'cheri/builder/cache'
 require 'cheri/builder/markup'
+require 'cheri/builder/template'
 require 'cheri/builder/config'
 require 'cheri/builder/connecter'
 require 'cheri/builder/context'
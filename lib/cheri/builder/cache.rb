@@ -0,0 +1,97 @@
+#--
+# Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+#
+# Permission is hereby granted, free of charge, to any person obtaining
+# a copy of this software and associated documentation files (the
+# "Software"), to deal in the Software without restriction, including
+# without limitation the rights to use, copy, modify, merge, publish,
+# distribute, sublicense, and/or sell copies of the Software, and to
+# permit persons to whom the Software is furnished to do so, subject to
+# the following conditions:
+#
+# The above copyright notice and this permission notice shall be
+# included in all copies or substantial portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+# EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+# MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+# NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+# LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+# OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+# WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+#++
+#
+
+module Cheri
+module Builder
+
+# A bounded cache, for lookups that are repeated far more often than they
+# miss (resolved accessors, constants, connecter dispatch tables and the
+# like):
+#
+#   @c = Cache.new
+#   ...
+#   val = @c.fetch(key) { compute(key) }
+#
+# Reads take no lock. Instead, the underlying hash is never changed once
+# published: each store merges into a copy, under a mutex, and then replaces
+# it, so a reader (in any thread) sees either the old hash or the new one.
+# A store is therefore linear in the size of the cache; once it holds +max+
+# entries it is dropped wholesale rather than copied, which bounds both the
+# memory and the cost of a miss. As values are computed outside the mutex,
+# two threads missing on the same key may both compute it, and one of the
+# results is kept; values should be cheap to compute again and equivalent.
+# A nil value reads as a miss, so negative results should be cached as false.
+class Cache
+  Max = 1024
+
+  def initialize(max=Max)
+    @m = max
+    @h = {}
+    @k = Mutex.new
+  end
+
+  # call-seq:
+  #   cache[key] -> value or nil
+  #
+  def [](key)
+    @h[key]
+  end
+
+  # call-seq:
+  #   cache.fetch(key) {|key| ... } -> value
+  #
+  # Returns the value cached for +key+, or stores and returns the value of
+  # the block.
+  def fetch(key)
+    (val = @h[key]).nil? ? store(key,yield(key)) : val
+  end
+
+  # call-seq:
+  #   cache.store(key,value) -> value
+  #
+  def store(key,val)
+    @k.synchronize do
+      @h = (h = @h).length < @m ? h.merge(key => val) : {key => val}
+    end
+    val
+  end
+  alias_method :[]=, :store
+
+  def clear
+    @k.synchronize { @h = {} }
+    self
+  end
+
+  def keys
+    @h.keys
+  end
+
+  def length
+    @h.length
+  end
+  alias_method :size, :length
+end #Cache
+
+end #Builder
+end #Cheri
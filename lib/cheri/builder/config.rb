@@ -52,6 +52,11 @@ class Config
     @n
   end
 
+  # idle contexts, when context pooling is on (see InstanceContext#release)
+  def context_pool
+    @cp ||= ContextPool.new
+  end
+
   
   # FIXME: eliminate!
   def resolvers
@@ -70,6 +75,7 @@ class Config
     end
     
     if mod.respond_to?(:connecter) && (obj = mod.connecter)
+      obj.seal if TypeConnecter === obj
       @c[mod] = obj
     end
 
@@ -82,6 +88,7 @@ class Config
 
 
     extend_mod(extendee,mod) if extendee
+    Cheri::Builder.dispatch_changed
     self
   end
   alias_method :add, :<<
@@ -147,6 +154,7 @@ class Config
       tcs.each do |atc|
         tc.merge!(atc)
       end
+      tc.seal
       # return the merged TC if there are no other
       # connecters (the usual case)
       return tc if others.empty?   
@@ -26,11 +26,42 @@ module Cheri
 module Builder
 
 class TypeConnecter
+  # Connections are found in dispatch tables compiled from the type and
+  # connect definitions (including those merged from other connecters), one
+  # per parent class, and one per parent symbol. A table holds the child
+  # symbol and child type rules of all the parent's types, each ranked by how
+  # near its type is among the parent's ancestors, so finding a connection is
+  # a lookup by child symbol and one by child class (whose nearest matching
+  # ancestor is resolved once, then cached in the table). The tables for
+  # the connecter's own classes are built when it's compiled (see seal),
+  # others on first use. The tables for parent classes, and each table's
+  # resolved child classes, are held in Caches; any change to a
+  # type/connect definition (see TypeConnecter.changed) recompiles them.
+  # Note that matches are by class: modules an object has been extended
+  # with are not considered.
+  @v = 0
+  @k = Mutex.new
+
+  class << self
+    # Invalidates the dispatch tables of all TypeConnecters. Called when
+    # any type or connect definition changes. (Locked, as a lost increment
+    # could leave a connecter compiled from stale definitions.)
+    def changed #:nodoc:
+      @k.synchronize { @v += 1 }
+      nil
+    end
+
+    def serial #:nodoc:
+      @v
+    end
+  end #self
 
   def initialize(*parents,&block)
     @t = {}
     @s = {}
-    @c = {}
+    @k = Mutex.new
+    @c = Cache.new
+    @d = {}
     parents.each do |parent| merge!(parent); end
     instance_eval(&block) if block
   end
@@ -53,65 +84,161 @@ class TypeConnecter
         s[sym] = symc.copy
       end
     end
+    TypeConnecter.changed
     self
   end
 
   def prepare(ctx,builder,obj,sym,props)
+    compile unless @z == TypeConnecter.serial
+    cls = obj.class
     # try parent symbol matches first
-    if (ssym = @s[builder.sym])
-      # child symbol match?
-      if (sctr = ssym.sctrs[sym])
-        return sctr.prepare(ctx,builder,obj,sym,props) 
+    if (tb = @d[builder.sym]) && (ctr = tb.lookup(cls,sym))
+      return ctr.prepare(ctx,builder,obj,sym,props)
+    end
+    # then try parent type matches
+    pcls = builder.object.class
+    tb = @c[pcls] || table(pcls)
+    (ctr = tb.lookup(cls,sym)) ? ctr.prepare(ctx,builder,obj,sym,props) : false
+  end
+
+  # call-seq:
+  #   connecter.seal -> connecter
+  #
+  # Compiles the dispatch tables, if the definitions have changed since they
+  # were last compiled. Called by Config when a builder module's connecter
+  # is added; definitions may still be changed later, at the cost of
+  # compiling again on the next connection.
+  def seal
+    compile unless @z == TypeConnecter.serial
+    self
+  end
+
+  # call-seq:
+  #   connecter.dump -> String
+  #
+  # Returns the compiled dispatch tables, for debugging. Each rule is shown
+  # with its rank (0 for the parent's nearest type), and each child class
+  # resolved so far with the rule it matched.
+  def dump
+    seal
+    str = ''
+    @d.keys.sort {|a,b| a.to_s <=> b.to_s }.each do |sym|
+      str << "symbol :#{sym}\n"
+      @d[sym].dump(str)
+    end
+    @c.keys.sort {|a,b| a.to_s <=> b.to_s }.each do |pcls|
+      str << "class #{pcls}\n"
+      @c[pcls].dump(str)
+    end
+    str
+  end
+
+  # flattens the definitions into rules by parent module (@x), and builds
+  # the tables for parent symbols and for parent types that are classes
+  def compile
+    @k.synchronize do
+      z = TypeConnecter.serial
+      return if @z == z
+      x = {}
+      @t.each_pair do |mod,type|
+        x[mod] = [type.sctrs.dup,tmods(type.tctrs)]
       end
-      # child type match?
-      unless ssym.tctrs.empty?
-        anc = (class<<obj;self;end).ancestors
-        ix = anc.length
-        match = nil
-        # match on nearest ancestor
-        ssym.tctrs.each do |tctr|
-          if (cix = anc.index(tctr.mod)) && cix < ix
-            ix = cix
-            match = tctr
-          end
-        end
-        return match.prepare(ctx,builder,obj,sym,props) if match
+      d = {}
+      @s.each_pair do |sym,ssym|
+        d[sym] = Table.new([[0,ssym.sctrs.dup,tmods(ssym.tctrs)]])
       end
+      @x = x
+      @c.clear
+      @d = d
+      x.each_key do |mod|
+        build(mod) if Class === mod
+      end
+      @z = z
     end
-    # then try parent type matches
-    t = @t
-    bld_anc = (class<<builder.object;self;end).ancestors
-    anc ||= (class<<obj;self;end).ancestors
-    key = [sym,bld_anc,anc]
-    if (ctr = @c[key])
-      return ctr.prepare(ctx,builder,obj,sym,props)
+    nil
+  end
+  private :compile
+
+  def tmods(tctrs)
+    h = {}
+    tctrs.each do |tctr| h[tctr.mod] = tctr; end
+    h
+  end
+  private :tmods
+
+  # the table for parent class pcls, built if need be
+  def table(pcls)
+    @k.synchronize do
+      @c[pcls] || build(pcls)
     end
-    bld_anc.each do |a|
-      if (type = t[a])
-        # child symbol match?
-        if (sctr = type.sctrs[sym])
-          @c[key] = sctr
-          return sctr.prepare(ctx,builder,obj,sym,props) 
-        end
-        # child type match?
-        #anc ||= (class<<obj;self;end).ancestors
-        ix ||= anc.length
-        match = nil
-        # match on nearest ancestor
-        type.tctrs.each do |tctr|
-          if (cix = anc.index(tctr.mod)) && cix < ix
-            ix = cix
-            match = tctr
-          end
-        end
-        if match
-          @c[key] = match
-          return match.prepare(ctx,builder,obj,sym,props)
-        end
+  end
+  private :table
+
+  # builds and adds the table for pcls (the caller holds the lock, so a
+  # table isn't built from definitions being compiled)
+  def build(pcls)
+    x = @x
+    rules = []
+    pcls.ancestors.each_with_index do |a,i|
+      if (r = x[a])
+        rules << [i,r[0],r[1]]
       end
     end
-    false
+    @c.store(pcls,Table.new(rules))
   end
+  private :build
+
+  # A compiled dispatch table, for one parent class or symbol
+  class Table #:nodoc: all
+    None = [(1 << 30),nil].freeze
+
+    # rules are [rank,sctrs,tmods], nearest first
+    def initialize(rules)
+      s = {} # child sym => [rank,SCtr]
+      m = {} # child module => [rank,TCtr]
+      rules.each do |rank,sctrs,tmods|
+        sctrs.each_pair do |sym,sctr| s[sym] ||= [rank,sctr]; end
+        tmods.each_pair do |mod,tctr| m[mod] ||= [rank,tctr]; end
+      end
+      @s = s
+      @m = m
+      @c = Cache.new # child class => [rank,TCtr] or None
+    end
+
+    # the connecter for a child of class cls and sym sym, or nil. a child
+    # sym match wins over a child type match from the same (or a further) type.
+    def lookup(cls,sym)
+      if (s = @s[sym]) && s[0] == 0
+        return s[1]
+      end
+      m = @m.empty? ? None : @c.fetch(cls) {|c| resolve(c) }
+      s && s[0] <= m[0] ? s[1] : m[1]
+    end
+
+    # the rule for the nearest of cls's ancestors among those of the nearest
+    # type
+    def resolve(cls)
+      m = @m
+      match = None
+      cls.ancestors.each do |a|
+        if (e = m[a]) && e[0] < match[0]
+          match = e
+          break if e[0] == 0
+        end
+      end
+      match
+    end
+
+    def dump(str)
+      (@s.to_a + @m.to_a).sort {|a,b| a[1][0] <=> b[1][0] }.each do |k,e|
+        str << "  #{e[0]}  #{e[1]}\n"
+      end
+      @c.keys.sort {|a,b| a.to_s <=> b.to_s }.each do |cls|
+        str << "  [#{cls}] => #{(e = @c[cls])[1] ? e[1] : 'none'}\n"
+      end
+      str
+    end
+  end #Table
 
   def type(mod,&k)
     if Module === mod
@@ -185,7 +312,7 @@ class TypeConnecter
       else
         raise Cheri.type_error(mod,Class,Module,Symbol,Array)
       end
-      nil
+      TypeConnecter.changed
     end
     
     def addm(mod,adder,&k)
@@ -219,7 +346,7 @@ class TypeConnecter
       t.concat(other.tctrs)
       s = @s
       other.sctrs.each do |sctr| s[sctr.sym] = sctr; end
-      nil
+      TypeConnecter.changed
     end
 
     def copy
@@ -264,7 +391,7 @@ class TypeConnecter
       else
         raise Cheri.type_error(sym,Symbol,Class,Module,Array)
       end
-      nil
+      TypeConnecter.changed
     end
     
     def addm(mod,adder,&k)
@@ -298,7 +425,7 @@ class TypeConnecter
       t.concat(other.tctrs)
       s = @s
       other.sctrs.each do |sctr| s[sctr.sym] = sctr; end
-      nil
+      TypeConnecter.changed
     end
 
     def copy
@@ -344,6 +471,10 @@ class TypeConnecter
       ctx.ppd(self,builder,obj,(@a || sym),props)
     end
 
+    def to_s
+      "#{@m.inspect} => #{@a ? @a.inspect : '{block}'}"
+    end
+
     def connect(parent,obj,sym,props)
       if @k
         @k.call(parent,obj,sym,props)
@@ -383,6 +514,10 @@ class TypeConnecter
       ctx.ppd(self,builder,obj,(@a || sym),props)
     end
 
+    def to_s
+      "#{@m.inspect} => #{@a ? @a.inspect : '{block}'}"
+    end
+
     def connect(parent,obj,sym,props)
       if @k
         @k.call(parent,obj,sym,props)
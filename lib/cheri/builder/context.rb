@@ -25,15 +25,90 @@
 module Cheri
 module Builder
 
-class InstanceContext
-  # TODO: defined?Java pulls it in (same as require 'java' or include Java)
-  # not sure if anyone would object...
-  if (defined?(::Java)) && (defined?JRUBY_VERSION) # JRuby 0.9.9 or later
-    Col = java.util.Collections
-    Map = java.util.HashMap
-    WMap = java.util.WeakHashMap
+# The builder dispatch caches (see Context#bld) assume that the modules'
+# factories answer the same way for the same symbol. Anything that changes
+# that for all contexts (including a module, auto-enabling one) calls
+# Cheri::Builder.dispatch_changed; for a single context, Context#dispatch_changed.
+# (With cheri.jar loaded, these are defined natively.)
+unless respond_to?(:dispatch_changed)
+  @dispatch_serial = 0
+  def self.dispatch_serial #:nodoc:
+    @dispatch_serial
+  end
+  def self.dispatch_changed #:nodoc:
+    @dispatch_serial += 1
+    nil
+  end
+end
+
+# Context pooling, for high-volume rendering where each render uses a new
+# client object or thread. When context_pool_size is greater than zero (the
+# default is 0, off), the context used by an outermost cheri, xml or html
+# block is cleared when the block ends, and kept (up to that many per builder
+# class) for reuse by the next instance or thread that needs one. Nothing
+# held by the context (options set through it, proxies, auto-enabled modules)
+# outlives the block, so proxies obtained within it must not be kept.
+@context_pool_size = 0
+def self.context_pool_size
+  @context_pool_size
+end
+def self.context_pool_size=(n)
+  raise Cheri.type_error(n,Integer) unless Integer === n
+  @context_pool_size = n
+end
+
+class ContextPool # :nodoc: all
+  def initialize
+    @a = []
+    @k = Mutex.new
+  end
+  def take
+    @k.synchronize { @a.pop } unless @a.empty?
+  end
+  def put(ctx,max)
+    @k.synchronize { @a << ctx if @a.length < max }
+  end
+  def size
+    @a.length
+  end
+end #ContextPool
+
+# Holds the Context of each thread for an InstanceContext (see
+# InstanceContext#current). Lookups take no lock: the hash is replaced, never
+# modified. A thread's entry is set once (or once per pooled block), so the
+# copy made then is paid per thread, not per build; entries for threads that
+# have ended are left out of each copy, so it holds only the live threads
+# using it (plus any that ended since the last change), however many
+# short-lived threads come and go. (With cheri.jar loaded, this is defined
+# natively.)
+unless const_defined?(:ContextMap)
+class ContextMap # :nodoc: all
+  def initialize
+    @h = {}
+    @k = Mutex.new
+  end
+  def current
+    @h[Thread.current]
+  end
+  def current=(c)
+    t = Thread.current
+    @k.synchronize do
+      h = {}
+      @h.each_pair do |u,x|
+        h[u] = x if u.alive? && !u.equal?(t)
+      end
+      h[t] = c if c
+      @h = h
+    end
+    c
+  end
+  def size
+    @h.size
   end
+end #ContextMap
+end
 
+class InstanceContext
   # call-seq:
   #   InstanceContext.new(client,builder_modules) -> anInstanceContext
   #   
@@ -46,15 +121,7 @@ class InstanceContext
     # upon instantiation).
     @p = {} # properties
     @l = {} # aliases
-    # TODO: find a better way to do this    
-    if self.class.const_defined?("Map")
-      @h = Col.synchronized_map WMap.new
-      @t = true # use Thread as key
-    else
-      # TODO: should use weak hash here
-      # TODO: threadsafe Ruby Hash implementation?
-      @h = {}
-    end
+    @h = ContextMap.new # contexts, by thread
   end
 
   def client
@@ -80,6 +147,7 @@ class InstanceContext
     else
      @u = [m]
     end
+    Cheri::Builder.dispatch_changed
   end
   
   def props
@@ -102,8 +170,21 @@ class InstanceContext
   #   current -> context object for the current instance/thread
   #   
   def current
-    key = @t ? Thread.current : Thread.current.__id__
-    @h[key] ||= Context.new(self,@c)
+    @h.current || (@h.current = ((c = @g.context_pool.take) ? c.bind(self,@c) : Context.new(self,@c)))
+  end
+
+  # call-seq:
+  #   release(ctx) -> nil
+  # 
+  # Called (through Context#out) when an outermost cheri/xml/html block ends.
+  # If context pooling is on (see Builder.context_pool_size), and ctx is the
+  # current thread's context, clears ctx and returns it to the pool.
+  def release(ctx)
+    if (max = Cheri::Builder.context_pool_size) > 0 && ctx.equal?(@h.current)
+      @h.current = nil
+      @g.context_pool.put(ctx.reset,max)
+    end
+    nil
   end
   
   # Overrides the default Object#inspect to prevent mind-boggling circular displays in IRB.
@@ -124,6 +205,8 @@ class Context
   # 
   #   @a - any? hash - active builders (on the stack) for which any? -> true
   #   @c - the client (normally instance of class that included Cheri builder modules)
+  #   @d - the DispatchNode for each stack frame (see bld), lazily initialized
+  #   @e - the root DispatchNode, lazily initialized
   #   @f - reference to the factories in the class's Config instance
   #   @g - reference to the class's Config instance (all included Cheri builder modules)
   #   @p - configuration properties hash, used for various purposes
@@ -134,21 +217,73 @@ class Context
   #   @r - array of ConstantResolver instances, lazily initialized
   #   @s - the stack, holds active builders and builder frames
   #   @u - auto-factories array, lazily initialized
+  #   @v - the Cheri::Builder.dispatch_serial the dispatch cache was built for
+  #   @w - flag indicating the dispatch cache may depend on this context's own state
   #   @x - flag indicating whether instance_exec is supported, lazily initialized
   #++ 
   def initialize(ictx,client)
+    bind(ictx,client)
+    @m = ConnectionMinder.new
+    @s = [] # stack
+    @p = {} # configuration properties
+  end
+
+  # Binds this (new or pooled) context to ictx and client.
+  def bind(ictx,client) #:nodoc:
     @i = ictx
     cfg = @g = ictx.cfg
     @f = cfg.factories
     @n = cfg.connecters
     if (u = ictx.auto)
       @u = u.dup
+      dispatch_changed
     end
     @l = ictx.aliases
     @c = client
-    @m = ConnectionMinder.new
-    @s = [] # stack
-    @p = {} # configuration properties
+    self
+  end
+
+  # Clears the stack, pending connections and properties, and unbinds this
+  # context from its instance, ready for pooling (see InstanceContext#release).
+  # The stack and minder are kept for reuse, as is the dispatch cache, unless
+  # it may depend on this context's options or auto-enabled modules.
+  def reset #:nodoc:
+    dispatch_changed if @u
+    clr
+    @p.clear
+    @i = @c = @u = @l = nil
+    self
+  end
+
+  # clears the stack and pending connections, and the dispatch cache if
+  # dispatch_changed has been called
+  def clr
+    @s.clear
+    @a.clear if @a
+    @ax = nil
+    @m.clear
+    if @w
+      @v = @d = @w = nil
+    elsif (d = @d)
+      d.clear
+    end
+  end
+  private :clr
+
+  # call-seq:
+  #   ctx.out { ... } -> result of block
+  # 
+  # Runs the block (the body of a cheri, xml or html block). If context pooling
+  # is on and the block is outermost, releases this context when it ends (see
+  # InstanceContext#release).
+  def out
+    return yield if Cheri::Builder.context_pool_size == 0 || active?
+    ictx = @i
+    begin
+      yield
+    ensure
+      ictx.release(self)
+    end
   end
 
   def ictx
@@ -179,6 +314,19 @@ class Context
   def auto!(m)
     raise BuilderException,"not an included builder module: #{m}" unless @g.include?(m)
     (@u ||= []) << m unless @u && @u.include?(m)
+    dispatch_changed
+  end
+
+  # call-seq:
+  #   ctx.dispatch_changed -> nil
+  # 
+  # Clears this context's builder dispatch cache (see bld). Called when something
+  # that affects which builders this context's factories supply (such as its
+  # markup options) changes.
+  def dispatch_changed
+    @v = @d = nil
+    @w = true
+    nil
   end
 
   # call-seq:
@@ -341,6 +489,9 @@ class Context
     @s << f   
     @m.pu f
     (@a ||= []) << f if f.any?
+    if (d = @d)
+      d << (d.last || @e).child(@f[f.mod])
+    end
     self
   end
   alias_method :push_frame, :push
@@ -349,6 +500,7 @@ class Context
     f = @s.pop
     @m.po f
     @a.pop if f.any?
+    @d.pop if @d
     f
   end
   alias_method :pop_frame, :pop
@@ -425,16 +577,34 @@ class Context
   # builder for the specified symbol (usually originating in the client's +method_missing+ method).
   # If no stack frame can supply a builder, any auto-enabled builder modules are searched
   # in the order they were enabled. Returns nil if no builder is found.
+  # 
+  # The answer (the factory that supplied the builder, or none) is cached for
+  # the symbol and the factories on the stack, so a repeated symbol goes straight
+  # to its factory, and one no factory supplies (a method on the built object,
+  # typically) goes straight to csm. :cherify and :cheri_yield, which depend on
+  # their arguments, are never cached.
   def bld(*r,&k)
     #puts "bld args: #{[r.join(',')]}"
     queried = nil # lazily-allocated array to hold factories we've already queried
     b = nil # builder
     atf = @f
+    if Symbol === (sym = r.first) && sym != :cherify && sym != :cheri_yield
+      node = dispatch_node
+      if (f = node[sym])
+        return b if (b = f.builder(self,*r,&k))
+        queried = [f]
+      elsif false == f
+        return nil
+      end
+    end
     # search stack for a frame whose module's factory can supply a matching builder
     @s.reverse_each do |s|
       if (f = atf[s.mod])
         unless queried && queried.include?(f)
-          return b if (b = f.builder(self,*r,&k))
+          if (b = f.builder(self,*r,&k))
+            node[sym] = f if node
+            return b
+          end
           (queried ||= []) << f
         end
       end
@@ -445,7 +615,10 @@ class Context
       u.each do |m|
         if (f = atf[m])
           unless queried && queried.include?(f)
-            return b if (b = f.builder(self,*r,&k))
+            if (b = f.builder(self,*r,&k))
+              node[sym] = f if node
+              return b
+            end
             (queried ||= []) << f
           end
         end
@@ -453,10 +626,24 @@ class Context
     end
     
     # no matches
+    node[sym] = false if node
     nil
   end
   alias_method :builder, :bld #:nodoc:
 
+  # the DispatchNode for the current stack, (re)building the nodes if the
+  # cache has been invalidated
+  def dispatch_node
+    unless (v = Cheri::Builder.dispatch_serial) == @v && (d = @d)
+      @v = v
+      n = @e = DispatchNode.new(nil)
+      atf = @f
+      d = @d = @s.map {|s| n = n.child(atf[s.mod]) }
+    end
+    d.last || @e
+  end
+  private :dispatch_node
+
   # call-seq:
   #   ctx.consume(sym, *args, &block) -> consumed?, result
   #   ctx.csm(sym, *args, &block) -> consumed?, result
@@ -624,27 +811,74 @@ class Context
   end
   alias_method :prepared, :ppd #:nodoc:
 
+  # call-seq:
+  #   pending?(builder) -> true/false
+  #   
+  # Returns true if connections to the object hosted by +builder+ (which must be on
+  # the stack) have been prepared but not yet made. Builders that connect themselves
+  # (see #ctc) can use this to avoid overtaking them.
+  def pending?(b)
+    @m.pending?(b)
+  end
+
   # Overrides the default Object#inspect to prevent mind-boggling circular displays in IRB.
   def inspect
     to_s 
   end
 
+  # A node in the trie of dispatch cache signatures. The path to a node is the
+  # order in which distinct factories were pushed (a frame whose factory is that
+  # of the frame below it, or that has none, stays on the same node), which
+  # determines the order in which bld queries them. Each node holds the answers
+  # for its signature: sym => factory, or false if no factory supplies a builder.
+  class DispatchNode # :nodoc: all
+    Max = 512 # answers are dropped wholesale once we reach this
+    def initialize(f)
+      @f = f  # the factory pushed to reach this node
+      @n = {} # child nodes, by factory __id__
+      @h = {} # answers
+    end
+    def child(f)
+      f && !f.equal?(@f) ? (@n[f.__id__] ||= DispatchNode.new(f)) : self
+    end
+    def [](sym)
+      @h[sym]
+    end
+    def []=(sym,f)
+      @h.clear if @h.size >= Max
+      @h[sym] = f
+    end
+  end #DispatchNode
+
   # We want to prevent built objects passed as parameters from
   # being dynamically connected, since presumably the method/ctor
   # being called will do whatever is needed (except for cherify,
   # which _wants_ its arg connected). Note that we can only catch
   # those passed to cheri-invoked ctors/methods.
+  #
+  # Pending connections are kept for each level of the stack, as runs of
+  # five entries (connecter, parent object, object, sym, props) in a list that
+  # is reused for each builder at that level, so nothing is allocated per
+  # builder or connection once the lists have grown. A cancelled connection's
+  # connecter is set to nil. Each pending object is indexed by its level and
+  # position in the list, so it's cancelled without searching; args that can't
+  # be pending objects (nil, true, false, Fixnums, Symbols and Strings) aren't
+  # looked up at all, so ck costs next to nothing for most sends.
   class ConnectionMinder # :nodoc: all
     def initialize
-      @c = {} # pending connections. indexed by builder.__id__
-      #@a = {} # pending 'any' connections. indexed by builder.__id__
-      @o = {} # pending builder(object)s. indexed by object.__id__
+      @b = [] # builders on the stack, by level
+      @c = [] # pending connections, by level
+      @a = [] # pending 'any' connections, by level
+      @o = {} # pending objects' [level, position, earlier entry], indexed by object.__id__
+      @n = 0  # stack depth
     end
 
-    # a builder has been pushed onto the stack. create
-    # an array to hold pending connections for that builder
+    # a builder has been pushed onto the stack.
     def pu(b)
-      @c[b.__id__] = []
+      n = @n
+      @b[n] = b
+      @c[n] ||= []
+      @n = n + 1
     end
     alias_method :pushed, :pu #:nodoc:
     
@@ -652,17 +886,35 @@ class Context
     # pending (prepared) connections, and remove each builder/object
     # associated with a connection from the pending objects hash.
     def po(b)
-      if @a && (ac = @a.delete b.__id__)
-        ac.each do |c|
-          c.connect rescue nil
+      return if (n = @n) == 0
+      n = @n = n - 1
+      @b[n] = nil
+      if (ac = @a[n]) && !ac.empty?
+        begin
+          i = 0
+          while i < ac.length
+            ac[i].connect(ac[i+1],ac[i+2],ac[i+3],ac[i+4]) rescue nil
+            i += 5
+          end
+        ensure
+          ac.clear
         end
       end
-      if (cs = @c.delete b.__id__)
+      unless (cs = @c[n]).empty?
         begin
-          cs.each do |c| c.connect; end
+          i = 0
+          while i < cs.length
+            (c = cs[i]) && c.connect(cs[i+1],cs[i+2],cs[i+3],cs[i+4])
+            i += 5
+          end
         ensure
           o = @o
-          cs.each do |c| o.delete c.obj.__id__; end
+          i = 2
+          while i < cs.length
+            o.delete cs[i].__id__
+            i += 5
+          end
+          cs.clear
         end    
       end
     end
@@ -670,70 +922,88 @@ class Context
     
     # store a prepared connection.
     def ppd(ctr,bldr,obj,sym,props=nil)
-      @o[obj.__id__] = bldr
-      @c[bldr.__id__] << Conn.new(ctr,bldr.object,obj,sym,props)
+      n = lv(bldr)
+      cs = @c[n]
+      # an object pending twice at one level keeps the earlier entry, so
+      # both are cancelled
+      e = @o[id = obj.__id__]
+      @o[id] = [n,cs.length,(e if e && e[0] == n)]
+      cs.push(ctr,bldr.object,obj,sym,props)
       true
     end
     alias_method :prepared, :ppd #:nodoc:
 
     # store a prepared 'any' connection.
     def ppda(ctr,bldr,obj,sym,props=nil)
-      ((@a ||= {})[bldr.__id__] ||= []) << Conn.new(ctr,bldr.object,obj,sym,props)
+      (@a[lv(bldr)] ||= []).push(ctr,bldr.object,obj,sym,props)
       true
     end
     alias_method :prepared_any, :ppda # :nodoc:
 
+    # true if connections to bldr's object are pending
+    def pending?(bldr)
+      !@c[lv(bldr)].empty?
+    end
+
     # check args passed to ctors/methods against the pending objects hash,
-    # and remove any matches from the pending connections/objects hashes.
+    # and cancel any matching pending connections.
     def ck(y,*r)
-      unless r.empty? || y == :cheri_yield || y == :cherify
-        o = @o
+      unless r.empty? || @o.empty? || y == :cheri_yield || y == :cherify
         r.each do |a|
-          if (b = o[a.__id__])
-            cs = @c[b.__id__]
-            cs.reverse_each do |c|
-              if a.equal?(c.obj)
-                cs.delete(c)
-                o.delete(a.__id__)
-              end
-            end
-          end
+          cn(a)
         end
-        if Hash === r.last
-          r.last.each_value do |a|
-            if (b = o[a.__id__])
-              cs = @c[b.__id__]
-              cs.reverse_each do |c|
-                if a.equal?(c.obj)
-                  cs.delete(c)
-                  o.delete(a.__id__)
-                end
-              end
-            end
+        if Hash === (h = r.last)
+          h.each_value do |a|
+            cn(a)
           end
         end     
       end
     end
     alias_method :check, :ck #:nodoc:
 
-    class Conn # :nodoc: all
-      def initialize(ctr,par,obj,sym,props)
-        @c = ctr
-        @p = par
-        @o = obj
-        @y = sym if sym
-        @r = props if props
+    # discard all pending connections (see Context#reset)
+    def clear
+      @b.clear
+      @c.each {|cs| cs.clear }
+      @a.each {|ac| ac.clear if ac }
+      @o.clear
+      @n = 0
+    end
+
+    private
+
+    # the stack level of bldr
+    def lv(bldr)
+      b = @b
+      n = @n
+      while (n -= 1) >= 0
+        return n if bldr.equal?(b[n])
       end
-      def obj
-        @o
+      raise ArgumentError,"can't prepare connection: builder not on stack"
+    end
+
+    # cancel pending connections for object a
+    def cn(a)
+      case a
+        when nil, true, false, Fixnum, Symbol, String : return
       end
-      def connect
-        @c.connect(@p,@o,@y,@r)
+      if (e = @o.delete(a.__id__))
+        cs = @c[e[0]]
+        begin
+          i = e[1]
+          cs[i] = nil if a.equal?(cs[i+2])
+        end while (e = e[2])
       end
-    end #Con
+    end
   end #ConnectionMinder
 end #Context
 
+# With cheri.jar loaded (JRuby 1.1 or later), the stack, builder lookup and
+# connection methods of Context are replaced by the native versions in
+# org.cheri.BuilderContext. The Ruby versions above are used otherwise, or
+# when the system property cheri.context.native is false.
+native_context!(Context) if respond_to?(:native_context!)
+
 end #Builder
 end #Cheri
 
@@ -55,25 +55,30 @@ end #self
       unless copts = ctx[:html_opts]
         iopts = ctx.ictx[:html_opts] ||= HtmlOptions.new
         copts = ctx[:html_opts] = HtmlOptions.new(iopts)
+        ctx.dispatch_changed if copts.dispatch_changed?
       end
       if k
-        if ctx.tos(HtmlElement)
-          HtmlFrame.new(ctx,*r,&k).run
-        else
-          if r.empty?
-            ctx.msend(Cheri::Html,:html,&k)
+        ctx.out do
+          if ctx.tos(HtmlElement)
+            HtmlFrame.new(ctx,*r,&k).run
           else
-            copts.ingest_args(*r)
-            if args = copts.delete(:args)
-              ctx.msend(Cheri::Html,:html,args,&k)
-            else
+            if r.empty?
               ctx.msend(Cheri::Html,:html,&k)
+            else
+              copts.ingest_args(*r)
+              ctx.dispatch_changed if copts.dispatch_changed?
+              if args = copts.delete(:args)
+                ctx.msend(Cheri::Html,:html,args,&k)
+              else
+                ctx.msend(Cheri::Html,:html,&k)
+              end
             end
           end
         end
       else
         unless r.empty?
           copts.ingest_args(*r)
+          ctx.dispatch_changed if copts.dispatch_changed?
           copts.delete(:args)
         end
         ctx[:html_proxy] ||= HtmlProxy.new(ctx,*r)
@@ -82,6 +87,17 @@ end #self
   end
   private :html
 
+  # call-seq:
+  #   html_template {|template| ... } -> Cheri::Builder::Template
+  #
+  # Returns a template of the markup built by the block (which will
+  # typically call html), for which only the parts in template.hole
+  # blocks are built again on each template.render.
+  def html_template(&k)
+    Cheri::Builder::Template.new(self,:html_opts,&k)
+  end
+  private :html_template
+
 
 module HtmlFactory
   def self.builder(ctx,sym,*r,&k)
@@ -168,6 +184,11 @@ class HtmlOptions < Cheri::Builder::BaseOptions
       nil
     end
   end
+
+  DispatchKeys = [:alias] #:nodoc:
+  def dispatch_key?(key)
+    DispatchKeys.include?(key)
+  end
 end #HtmlOptions
 
 class HtmlProxy < Cheri::Builder::BaseProxy
@@ -186,6 +207,7 @@ class HtmlProxy < Cheri::Builder::BaseProxy
     iopts.delete(:args)
     copts = ctx[:html_opts] ||= HtmlOptions.new
     copts.ingest_args(*args)
+    ctx.dispatch_changed if copts.dispatch_changed?
     copts.delete(:args)
     nil
   end
@@ -208,8 +230,10 @@ class HtmlFrame
         temp = HtmlOptions.new(opts)
         temp.ingest_args(*args)
         ctx[:html_opts] = temp
+        ctx.dispatch_changed if (dc = temp.dispatch_changed?)
         result = ctx.call(self,&blk)
         ctx[:html_opts] = opts
+        ctx.dispatch_changed if dc
         result
       else
         @ctx.call(self,&blk)
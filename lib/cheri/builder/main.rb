@@ -128,7 +128,7 @@ end #self
   def cheri(*r,&k)
     if (ctx = __cheri_ctx)
       if k
-        CheriFrame.new(ctx,*r,&k).run
+        ctx.out { CheriFrame.new(ctx,*r,&k).run }
       else
         ctx[:cheri_proxy] ||= CheriProxy.new(ctx,*r)
       end
@@ -294,12 +294,28 @@ class BaseOptions < Hash
 
   def store(key,value)
     val = validate(key,value)
+    @dc = true if dispatch_key?(key)
     if nil == val
       delete(key)
     else
       super(key,val)
     end
   end
+
+  # Returns true if an option for which dispatch_key? is true has been stored
+  # (including by copying) since this was last called. The context using
+  # the options should then be told (Context#dispatch_changed).
+  def dispatch_changed?
+    dc = @dc
+    @dc = nil
+    dc
+  end
+
+  # Override to return true for keys that affect which builders the module's
+  # factory supplies.
+  def dispatch_key?(key)
+    false
+  end
   #alias_method :store,:[]=
 
   def validate_boolean(value)
@@ -363,25 +379,23 @@ module DefaultConsumer
 G = 'get_' #:nodoc:
 S = 'set_' #:nodoc:
 I = 'is_'  #:nodoc:
+# The setter (xxx=) for each symbol is cached, sparing the string tests and
+# building on repeated calls. Unlike the Java GenericConsumer, whether an
+# object responds to it isn't cached by class, as plain Ruby objects
+# (OpenStructs, for instance) may differ from others of their class.
+@a = Cache.new # sym => setter, or false if sym is already an accessor
 
   # call-seq:
   #   DefaultConsumer.consume(context,builder,sym,*args,&block) -> consumed?, ret_val
   #
   def self.consume(ctx,bld,sym,*args,&k)
     obj = bld.object
-    s = sym.to_s
-    # if sym is already clearly a getter/setter/is-er (xxx=, xxx?, get_xxx, set_xxx, is_xxx),
-    # then leave it as is.
-    # (Note: tested the following line against s =~ /((\?|=)$|^(get_|set_|is_))/ - this is about
-    # 50% faster in MRI (C) Ruby, but currently slower in JRuby (0.9.9)...)
-    if (c = s[-1]) == ?= || c == ?? || s.rindex(G,0) || s.rindex(S,0) || s.rindex(I,0)
-      snd = sym
-    # otherwise, if there are args and the sym works as a setter (xxx=), then prefer
-    # that to a getter.
-    elsif !args.empty? && obj.respond_to?(snd = s << ?= ) # TODO: careful, what if sym was String?
-    # otherwise leave it as is
-    else
-      snd = sym
+    snd = sym
+    # if there are args and the sym works as a setter (xxx=), then prefer
+    # that to a getter. otherwise leave it as is.
+    unless args.empty?
+      eq = @a.fetch(sym) {|y| setter(y) }
+      snd = eq if eq && obj.respond_to?(eq)
     end
     if obj.respond_to?(snd)
       if !args.empty? && bld.respond_to?(:resolve?) && bld.resolve?
@@ -413,6 +427,21 @@ I = 'is_'  #:nodoc:
     return false,nil # consumed,ret_val
   end #consume
 
+  # the setter for sym (xxx=), or false if sym is already clearly a
+  # getter/setter/is-er (xxx=, xxx?, get_xxx, set_xxx, is_xxx)
+  def self.setter(sym)
+    s = sym.to_s
+    # (Note: tested the following line against s =~ /((\?|=)$|^(get_|set_|is_))/ - this is about
+    # 50% faster in MRI (C) Ruby, but currently slower in JRuby (0.9.9)...)
+    if (c = s[-1]) == ?= || c == ?? || s.rindex(G,0) || s.rindex(S,0) || s.rindex(I,0)
+      eq = false
+    else
+      eq = (s + '=').to_sym
+    end
+    eq
+  end
+  private_class_method :setter
+
 end #DefaultConsumer
 
 
@@ -0,0 +1,248 @@
+#--
+# Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+#
+# Permission is hereby granted, free of charge, to any person obtaining
+# a copy of this software and associated documentation files (the
+# "Software"), to deal in the Software without restriction, including
+# without limitation the rights to use, copy, modify, merge, publish,
+# distribute, sublicense, and/or sell copies of the Software, and to
+# permit persons to whom the Software is furnished to do so, subject to
+# the following conditions:
+#
+# The above copyright notice and this permission notice shall be
+# included in all copies or substantial portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+# EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+# MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+# NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+# LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+# OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+# WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+#++
+#
+
+require 'cheri/builder'
+require 'yaml'
+
+module Cheri
+module Builder
+
+# Profiles the builder dispatch methods of Context (send, msend, nsend, bld,
+# csm and ctc) and TypeConnecter#prepare, recording for each method, builder
+# module and symbol the number of calls, and their total and self (less
+# nested profiled calls) times. For send, the module is that of the builder
+# or frame that handled the symbol.
+#
+#   require 'cheri/builder/profiler'
+#   Cheri::Builder::Profiler.profile { build_main_window }
+#   puts Cheri::Builder::Profiler.report
+#
+# The methods are only wrapped between start and stop, so profiling costs
+# nothing when it is off.
+module Profiler
+  # method => [module expression, symbol expression], evaluated in the
+  # wrapper (r is the args, x the result)
+  Hooks = {
+    :send => ['nil', 'r[0]'],
+    :msend => ['r[0]', 'r[1]'],
+    :nsend => ['r[0]', 'r[2]'],
+    :bld => ['(x && x.mod)', 'r[0]'],
+    :csm => ['((t = top) && t.mod)', 'r[0]'],
+    :ctc => ['r[0].mod', '(r[0].respond_to?(:sym) ? r[0].sym : nil)'],
+    :prepare => ['r[1].mod', 'r[3]'],
+  }
+  Methods = {
+    Context => [:send,:msend,:nsend,:bld,:csm,:ctc],
+    TypeConnecter => [:prepare],
+  }
+  Columns = %w(method module symbol count total self)
+
+  Clock = java.lang.System if defined?(JRUBY_VERSION)
+  @k = Mutex.new
+  @d = {} # [method,module,symbol] => [count,total,self]
+  @on = false
+
+class << self
+  # call-seq:
+  #   Profiler.start -> true
+  #
+  # Starts profiling (adding to any data already collected).
+  def start
+    @k.synchronize do
+      return true if @on
+      Methods.each_pair do |clazz,meths|
+        meths.each do |m|
+          wrap(clazz,m)
+        end
+      end
+      # with the native Context, have send (etc.) call bld, csm and ctc
+      # through the (wrapped) Ruby methods
+      Cheri::Builder.profiling = true if Cheri::Builder.respond_to?(:profiling=)
+      @on = true
+    end
+  end
+
+  # call-seq:
+  #   Profiler.stop -> false
+  #
+  def stop
+    @k.synchronize do
+      return false unless @on
+      Cheri::Builder.profiling = false if Cheri::Builder.respond_to?(:profiling=)
+      Methods.each_pair do |clazz,meths|
+        meths.each do |m|
+          unwrap(clazz,m)
+        end
+      end
+      @on = false
+    end
+  end
+
+  def running?
+    @on
+  end
+
+  # Discards the data collected so far.
+  def reset
+    @k.synchronize { @d = {} }
+    nil
+  end
+
+  # call-seq:
+  #   Profiler.profile { ... } -> result of block
+  #
+  # Profiles the block.
+  def profile
+    start
+    begin
+      yield
+    ensure
+      stop
+    end
+  end
+
+  # call-seq:
+  #   Profiler.to_a -> array of hashes
+  #
+  # Returns the data collected, one hash (keyed by the names in Columns) for
+  # each method/module/symbol, sorted by self time. Times are in seconds.
+  def to_a
+    rows = []
+    @k.synchronize do
+      @d.each_pair do |key,v|
+        mod = key[1]
+        rows << {
+          'method' => key[0].to_s,
+          'module' => mod ? mod.to_s : nil,
+          'symbol' => key[2] ? key[2].to_s : nil,
+          'count' => v[0],
+          'total' => v[1],
+          'self' => v[2]}
+      end
+    end
+    rows.sort {|a,b| b['self'] <=> a['self'] }
+  end
+
+  # call-seq:
+  #   Profiler.dump -> YAML string
+  #
+  # Returns to_a as YAML.
+  def dump
+    to_a.to_yaml
+  end
+
+  # call-seq:
+  #   Profiler.report(sort = :self, limit = nil) -> String
+  #
+  # Returns the data collected as a table, sorted (descending) by :self,
+  # :total or :count, of at most limit rows.
+  def report(sort=:self,limit=nil)
+    key = sort.to_s
+    raise ArgumentError,"invalid sort key: #{sort}" unless %w(self total count).include?(key)
+    rows = to_a.sort {|a,b| b[key] <=> a[key] }
+    rows = rows[0,limit] if limit
+    wm = rows.inject(6) {|w,r| [w,(r['module'] || '-').length].max }
+    ws = rows.inject(6) {|w,r| [w,(r['symbol'] || '-').length].max }
+    fmt = "%-7s  %-#{wm}s  %-#{ws}s  %9s  %11s  %11s  %9s\n"
+    out = fmt % ['method','module','symbol','count','total ms','self ms','us/call']
+    rows.each do |r|
+      out << fmt % [r['method'],r['module'] || '-',r['symbol'] || '-',r['count'],
+        '%.3f' % (r['total'] * 1000),'%.3f' % (r['self'] * 1000),
+        '%.1f' % (r['self'] * 1000000 / r['count'])]
+    end
+    out
+  end
+
+  # the time in seconds, for enter and leave. Under JRuby, Time.now is only
+  # good to the millisecond, so System.nanoTime is used.
+  if defined?(JRUBY_VERSION)
+    def now #:nodoc:
+      Clock.nanoTime * 1.0e-9
+    end
+  else
+    def now #:nodoc:
+      Time.now.to_f
+    end
+  end
+
+  def enter #:nodoc:
+    (Thread.current[:cheri_profile] ||= []) << [now,0.0,nil]
+  end
+
+  def leave(meth,mod,sym) #:nodoc:
+    t = now
+    return unless (s = Thread.current[:cheri_profile]) && (f = s.pop)
+    el = t - f[0]
+    mod ||= f[2]
+    if (pf = s.last)
+      pf[1] += el
+      pf[2] ||= mod
+    end
+    key = [meth,mod,sym]
+    @k.synchronize do
+      if (v = @d[key])
+        v[0] += 1
+        v[1] += el
+        v[2] += el - f[1]
+      else
+        @d[key] = [1,el,el - f[1]]
+      end
+    end
+  end
+
+  private
+
+  def wrap(clazz,m)
+    orig = "__cheri_unprofiled_#{m}"
+    mexp, sexp = Hooks[m]
+    priv = clazz.private_method_defined?(m)
+    clazz.class_eval <<-EOM
+      alias_method :#{orig}, :#{m}
+      def #{m}(*r,&k)
+        Cheri::Builder::Profiler.enter
+        x = nil
+        begin
+          x = #{orig}(*r,&k)
+        ensure
+          Cheri::Builder::Profiler.leave(:#{m},#{mexp},#{sexp})
+        end
+      end
+    EOM
+    clazz.send(:private,m) if priv
+  end
+
+  def unwrap(clazz,m)
+    orig = "__cheri_unprofiled_#{m}"
+    priv = clazz.private_method_defined?(m)
+    clazz.class_eval <<-EOM
+      alias_method :#{m}, :#{orig}
+      remove_method :#{orig}
+    EOM
+    clazz.send(:private,m) if priv
+  end
+end #self
+end #Profiler
+
+end #Builder
+end #Cheri
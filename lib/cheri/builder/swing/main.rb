@@ -72,6 +72,19 @@ class << self
     SwingResolver  
   end
     
+  # call-seq:
+  #   Cheri::Swing.grid_table_metrics -> Hash
+  #
+  # Returns the GridTable metrics totals for this runtime (counts, and times
+  # in nanoseconds), keyed by symbol. Metrics are collected only once turned on, for all tables
+  # with org.cheri.swing.layout.GridTableMetrics.enabled = true, or for one
+  # with GridTable#metrics_enabled = true.
+  def grid_table_metrics
+    h = {}
+    org.cheri.RuntimeResources.get_resources(self).grid_table_metrics.each {|k,v| h[k.to_sym] = v }
+    h
+  end
+  
   # a bit expensive, but only used by cherify/cheri_yield
   def swing?(obj)
     obj.respond_to?(:get_class) &&
@@ -215,14 +228,79 @@ module StandardFactory
   end
 end #StandardFactory
 
+# Builds a GridTable in batch mode: rows (and their cells) connected while
+# the grid_table block runs are collected, and added to the table in one
+# pass (with a single revalidation) when the block completes.
+class GridTableBuilder < ClassBuilder
+  def initialize(ctx,sym,*args,&block)
+    super(ctx,sym,org.cheri.swing.layout.GridTable,*args,&block)
+  end
+private
+  def create
+    super
+    # metrics (if turned on) are added to this runtime's totals
+    @obj.metrics_totals = org.cheri.RuntimeResources.get_resources(self).grid_table_totals
+  end
+  def call
+    return unless @blk
+    # pending row connections are made when this builder is popped, which
+    # happens before ctx.call returns, so they all land in the batch
+    @obj.begin_batch
+    begin
+      @ctx.call(self,&@blk)
+    ensure
+      @obj.commit_batch
+    end
+  end
+end #GridTableBuilder
+
+# Builds a GridRow. Directly under a GridTable, the table's shared row
+# (GridTable#getSharedRow) is filled and added to the table as soon as its
+# block completes (rather than when the table's block does), after which it
+# is reset for the next grid_row; so a table of any size allocates just the
+# one row. The value of a grid_row call is therefore only good until the
+# row has been added. A grid_row that follows some other component added to
+# the table (whose connection waits for the table's block to complete) is
+# built and connected as usual, so that it stays behind that component.
+class GridRowBuilder < ClassBuilder
+  GridTable = org.cheri.swing.layout.GridTable
+  def initialize(ctx,sym,*args,&block)
+    super(ctx,sym,org.cheri.swing.layout.GridRow,*args,&block)
+  end
+  # called by Context#ctc in place of the usual (deferred) connection
+  def connect(ctx)
+    return false unless @table
+    @obj.default_constraints = @props if @props && !@props.empty?
+    @table.add_row(@obj)
+    true
+  end
+private
+  def create
+    # rows created with ctor args, or outside a table, are built as usual
+    if @args.empty? && (b = parent_builder) && GridTable === (t = b.object) && !@ctx.pending?(b)
+      @table = t
+      @obj = t.shared_row
+    else
+      super
+    end
+  end
+  # the builder whose object Context#ctc would connect this builder's object to
+  def parent_builder
+    @ctx.each do |b|
+      return b if b.parent? && b.object
+    end
+    nil
+  end
+end #GridRowBuilder
+
 module GridTableFactory
   SwingLayout = org.cheri.swing.layout
   @names = [:grid_table,:grid_row,:empty_cell]
   def self.builder(ctx,sym,*args,&block)
     if sym == :grid_table
-      ClassBuilder.new(ctx,sym,SwingLayout::GridTable,*args,&block)
+      GridTableBuilder.new(ctx,sym,*args,&block)
     elsif sym == :grid_row
-      ClassBuilder.new(ctx,sym,SwingLayout::GridRow,*args,&block)
+      GridRowBuilder.new(ctx,sym,*args,&block)
     elsif sym == :empty_cell
       ClassBuilder.new(ctx,sym,SwingLayout::EmptyCell,*args,&block)
     else
@@ -234,6 +312,22 @@ module GridTableFactory
   end
 end
 
+# Adapts a block to org.cheri.swing.layout.GridRowSupplier, for virtual
+# GridTables whose rows are created only as they scroll into view:
+#   table.set_row_supplier(GridRowSupplier.new {|index,recycled| ... }, 20000)
+# The block returns the GridRow for index; recycled is nil, or a row that has
+# scrolled out of view, which may be updated for index and returned.
+class GridRowSupplier
+  include org.cheri.swing.layout.GridRowSupplier
+  def initialize(&block)
+    raise ArgumentError,"missing block for row supplier" unless block
+    @blk = block
+  end
+  def getRow(index,recycled)
+    @blk.call(index,recycled)
+  end
+end #GridRowSupplier
+
 module BoxComponentFactory
 CJava = Cheri::Java
 X_AXIS = 0
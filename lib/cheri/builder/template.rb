@@ -0,0 +1,250 @@
+#--
+# Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+#
+# Permission is hereby granted, free of charge, to any person obtaining
+# a copy of this software and associated documentation files (the
+# "Software"), to deal in the Software without restriction, including
+# without limitation the rights to use, copy, modify, merge, publish,
+# distribute, sublicense, and/or sell copies of the Software, and to
+# permit persons to whom the Software is furnished to do so, subject to
+# the following conditions:
+#
+# The above copyright notice and this permission notice shall be
+# included in all copies or substantial portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+# EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+# MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+# NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+# LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+# OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+# WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+#++
+#
+
+module Cheri
+module Builder
+
+# A compiled markup template, created by Cheri::Html#html_template or
+# Cheri::Xml#xml_template. The template block is run (once) to build the
+# markup, and its static parts are serialized to frozen strings. Only the
+# parts marked as holes are built again on each render:
+#
+#   @page = html_template do |t|
+#     html { body { h1 'Users'; ul { t.hole {|users| users.each {|u| li u.name } } } } }
+#   end
+#   ...
+#   @page.render(users)
+#
+# The output of render is the same, byte for byte, as that of building the
+# whole block and calling to_s. Anything outside a hole must therefore not
+# depend on the values passed to render (though it may depend on values that
+# don't change, such as loop variables). Each hole's block is called with the
+# arguments to render, in the markup element enclosing it; a String it
+# returns is added to that element, as it would be by the element's own block.
+#
+# The static parts of an element depend on whether its content includes
+# data (text), or is empty (when formatting); so templates are compiled for
+# each combination of empty, markup-only and data holes seen, up to
+# MaxVariants combinations (after which they're dropped, and compiled again
+# as they recur).
+class Template
+  MaxVariants = 64
+  # :stopdoc:
+  ArgsKey = :cheri_template_args
+  # :startdoc:
+
+  def initialize(client,opts_key=nil,&k)
+    raise Cheri.type_error(k,Proc) unless k
+    @c = client
+    @y = opts_key
+    @k = k
+    @m = Mutex.new
+    @v = Cache.new(MaxVariants)
+  end
+
+  # call-seq:
+  #   template.render(*args) -> String
+  #
+  # Renders the template, passing +args+ to the block of each hole.
+  def render(*args)
+    ctx = @c.send(:__cheri_ctx)
+    ctx.out do
+      compile(nil) unless @h
+      outs = @h.map {|h| run(ctx,h,args) }
+      key = outs.map do |c|
+        if c.nil? || c.empty? then :e
+        elsif c.all? {|v| Markup === v } then :m
+        else :d
+        end
+      end
+      plan, snaps = @v[key] || compile(key)
+      str = ''
+      plan.each do |x|
+        if String === x
+          str << x
+        else
+          cont = outs[x]
+          s = snaps[x].dup
+          s.instance_eval { @cont = cont; @ctx = ctx }
+          s.cont_s(str)
+        end
+      end
+      str
+    end
+  end
+
+  # call-seq:
+  #   template.hole {|*args| ... } -> nil
+  #
+  # Marks a hole (see Template). Outside the template block (or in a hole,
+  # or a nested template), just calls the block with the arguments to render.
+  def hole(&k)
+    raise Cheri.type_error(k,Proc) unless k
+    unless (cs = @cs) && cs[3] == Thread.current
+      return k.call(*(Thread.current[ArgsKey] || []))
+    end
+    # the element the hole's content would connect to (see Context#ctc)
+    parent = bldr = nil
+    (ctx = @c.send(:__cheri_ctx)).each do |b|
+      if b.parent? && (o = b.object)
+        parent = o
+        bldr = b
+        break
+      end
+    end
+    raise MarkupException,"template hole must be within a markup element" unless Markup === parent
+    holes = cs[1]
+    i = holes.length
+    holes << [k,parent,@y && ctx[@y]]
+    # added as a pending connection, so it's in order with the element's
+    # other content
+    case (cs[0] ? cs[0][i] : :m)
+      when :m : ctx.ppd(self,bldr,MarkupHole.new(self,i,parent),:add)
+      when :d : ctx.ppd(self,bldr,DataHole.new(self,i,parent),:add)
+    end
+    nil
+  end
+
+  # Connects a hole placeholder to its element (see #hole).
+  def connect(parent,obj,sym,props) #:nodoc:
+    parent.add(obj)
+    nil
+  end
+
+  # Records the state of the element enclosing hole +i+ as it's serialized
+  # (depth, formatting). Called by MarkupHole/DataHole#to_s.
+  def snap(i,parent) #:nodoc:
+    raise MarkupException,"template hole #{i} serialized outside template" unless (cs = @cs)
+    cs[2][i] = parent.dup
+    "\0cheri#{__id__}:#{i}\0"
+  end
+
+  private
+
+  # builds the template for the given hole states (:e, :m or :d, by index),
+  # or all :m for the first time. returns [plan, snapshots], where plan is
+  # the static strings with the hole indexes between them. render reads @h
+  # and @v without locking, so @h is set only once the first compile has
+  # succeeded and its result is in @v.
+  def compile(key)
+    @m.synchronize do
+      # another thread may have compiled it
+      key ||= Array.new(@h.length,:m) if @h
+      if key && (result = @v[key])
+        return result
+      end
+      holes = []
+      snaps = []
+      @cs = [key,holes,snaps,Thread.current]
+      begin
+        str = @k.call(self).to_s
+      ensure
+        @cs = nil
+      end
+      key ||= Array.new(holes.length,:m)
+      if key.length != holes.length
+        raise MarkupException,"template holes changed (#{key.length} then #{holes.length})"
+      end
+      plan = []
+      seen = {}
+      str.split(/\0cheri#{__id__}:(\d+)\0/).each_with_index do |x,j|
+        if (j & 1) == 0
+          plan << x.freeze unless x.empty?
+        else
+          i = x.to_i
+          raise MarkupException,"template hole #{i} serialized more than once" if seen[i]
+          plan << (seen[i] = i)
+        end
+      end
+      key.each_with_index do |state,i|
+        if state != :e && !seen[i]
+          raise MarkupException,"template hole #{i} not serialized (its element must be Markup)"
+        end
+      end
+      result = @v.store(key,[plan.freeze,snaps.freeze])
+      @h ||= holes
+      result
+    end
+  end
+
+  # runs a hole's block in a copy of its element (and with the element's
+  # options), returning the content it adds
+  def run(ctx,hole,args)
+    k, parent, opts = hole
+    c = parent.dup
+    c.instance_eval { @cont = nil; @ctx = ctx }
+    if (y = @y) && !(cur = ctx[y]).equal?(opts)
+      ctx[y] = opts
+      ctx.dispatch_changed
+      swapped = true
+    end
+    t = Thread.current
+    prev = t[ArgsKey]
+    t[ArgsKey] = args
+    begin
+      val = ctx.call(c) { k.call(*args) }
+    ensure
+      t[ArgsKey] = prev
+      if swapped
+        ctx[y] = cur
+        ctx.dispatch_changed
+      end
+    end
+    c.add(val) if String === val
+    c.content
+  end
+
+  # Placeholder for a hole with (only) Markup content
+  class MarkupHole #:nodoc:
+    include Markup
+    def initialize(tpl,i,parent)
+      @t = tpl
+      @i = i
+      @p = parent
+    end
+    def to_s(str='')
+      str << @t.snap(@i,@p)
+    end
+    alias_method :to_io, :to_s
+  end
+
+  # Placeholder for a hole with data content, which is not Markup, so marks
+  # its element as containing data when added.
+  class DataHole #:nodoc:
+    include MarkupLike
+    def initialize(tpl,i,parent)
+      @t = tpl
+      @i = i
+      @p = parent
+    end
+    def to_s(str='')
+      str << @t.snap(@i,@p)
+    end
+    alias_method :to_io, :to_s
+  end
+
+end #Template
+
+end #Builder
+end #Cheri
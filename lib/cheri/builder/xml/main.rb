@@ -55,21 +55,37 @@ end #self
       unless copts = ctx[:xml_opts]
         iopts = ctx.ictx[:xml_opts] ||= XmlOptions.new
         copts = ctx[:xml_opts] = XmlOptions.new(iopts)
+        ctx.dispatch_changed if copts.dispatch_changed?
       end
       if k      
-        if ctx.tos(XmlBuilder)
-          XmlFrame.new(ctx,*r,&k).run
-        else
-          copts.ingest_args(*r) unless r.empty?
-          ctx.msend(Cheri::Xml,:xml,&k)
+        ctx.out do
+          if ctx.tos(XmlBuilder)
+            XmlFrame.new(ctx,*r,&k).run
+          else
+            copts.ingest_args(*r) unless r.empty?
+            ctx.dispatch_changed if copts.dispatch_changed?
+            ctx.msend(Cheri::Xml,:xml,&k)
+          end
         end
       else
         copts.ingest_args(*r) unless r.empty?
+        ctx.dispatch_changed if copts.dispatch_changed?
         ctx[:xml_proxy] ||= XmlProxy.new(ctx,*r)
       end
     end
   end
   private :xml
+
+  # call-seq:
+  #   xml_template {|template| ... } -> Cheri::Builder::Template
+  #
+  # Returns a template of the markup built by the block (which will
+  # typically call xml), for which only the parts in template.hole
+  # blocks are built again on each template.render.
+  def xml_template(&k)
+    Cheri::Builder::Template.new(self,:xml_opts,&k)
+  end
+  private :xml_template
   
 module XmlFactory
   def self.builder(ctx,sym,*r,&k)
@@ -212,6 +228,11 @@ class XmlOptions < Cheri::Builder::BaseOptions
       raise ArgumentError,"invalid xml option: #{key}"
     end
   end
+
+  DispatchKeys = [:any,:accept,:alias,:ns] #:nodoc:
+  def dispatch_key?(key)
+    DispatchKeys.include?(key)
+  end
 end #XmlOptions
 
 
@@ -230,6 +251,7 @@ class XmlProxy < Cheri::Builder::BaseProxy
     iopts.ingest_args(*args)
     copts = ctx[:xml_opts] ||= XmlOptions.new
     copts.ingest_args(*args)
+    ctx.dispatch_changed if copts.dispatch_changed?
     nil
   end
 
@@ -272,8 +294,10 @@ class XmlFrame
         temp = XmlOptions.new(opts)
         temp.ingest_args(*args)
         ctx[:xml_opts] = temp
+        ctx.dispatch_changed if (dc = temp.dispatch_changed?)
         result = ctx.call(self,&blk)
         ctx[:xml_opts] = opts
+        ctx.dispatch_changed if dc
         result
       else
         @ctx.call(self,&blk)
@@ -192,31 +192,26 @@ end
 
 module GenericConsumer
 Util = Cheri::Java::Builder::Util
+Cache = Cheri::Builder::Cache
 G = 'get'
 S = 'set'
 I = 'is'
 E = '='
+# The accessor resolved for each Java class and symbol (and whether there
+# are args) is cached, so repeated calls skip the name mangling and
+# respond_to? probes.
+@g = Cache.new # no args: class => Cache of sym => accessor or false
+@s = Cache.new # args: class => Cache of sym => accessor or false
 class << self
   def consume(ctx,bld,sym,*args,&k)
     #puts "JGC: #{sym}"
     return false,nil unless (obj = bld.object).respond_to?(:java_class)
-    s = sym.to_s
-    # if sym is already an accessor, use it as is
-
-    if Util.acc?(s)
-      snd = sym
-    else
-      cc = Util.cc(s) #upper-camel-cased name
-      if ((!args.empty?) && (obj.respond_to?(snd = S + cc) || obj.respond_to?(snd = s + E )))
-      elsif obj.respond_to?(snd = G + cc)
-      elsif obj.respond_to?(snd = I + cc)
-      else
-         snd = sym
-      end
-    end
+    cls = obj.class
+    set = !args.empty?
+    snd = (set ? @s : @g).fetch(cls) { Cache.new }.fetch(sym) { accessor(obj,sym,set) }
     #puts "JGC: snd = #{snd}"
-    if obj.respond_to?(snd)
-      if !args.empty? && bld.respond_to?(:resolve?) && bld.resolve?
+    if snd
+      if set && bld.respond_to?(:resolve?) && bld.resolve?
         ctx.mrz(bld.mod,obj,snd,args)
       end
       
@@ -235,8 +230,28 @@ class << self
     end
     return false,nil # consumed,res
   end
+
+  # the method obj responds to for sym: sym itself if it's already an
+  # accessor, otherwise (if set) setXxx or xxx=, then getXxx, isXxx or sym;
+  # false if none
+  def accessor(obj,sym,set)
+    s = sym.to_s
+    if Util.acc?(s)
+      snd = sym
+    else
+      cc = Util.cc(s) #upper-camel-cased name
+      if (set && (obj.respond_to?(snd = S + cc) || obj.respond_to?(snd = s + E )))
+      elsif obj.respond_to?(snd = G + cc)
+      elsif obj.respond_to?(snd = I + cc)
+      else
+         snd = sym
+      end
+    end
+    obj.respond_to?(snd) && snd.to_sym
+  end
+  private :accessor
 end #self
-end #DefaultConsumer
+end #GenericConsumer
 
 module EventMethodConsumer
 #:stopdoc:
@@ -295,8 +310,9 @@ class ConstantResolver < Cheri::Builder::AbstractConstantResolver
     end
     unless @sources.include?(source)
       @sources << source
-      # flush the cache
+      # flush the caches
       @cache.clear 
+      Const.flush
     end
   end
   alias_method :<<, :add_constant_source
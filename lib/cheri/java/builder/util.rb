@@ -122,6 +122,32 @@ class << self
 end #self
 end #Util
 
+# Java class metadata (bean accessors, listener methods, constructors and
+# methods by arity, constants), introspected in Java and cached per runtime
+# by org.cheri.ClassInfoCache.
+module ClassInfo
+class << self
+  def resources
+    @res ||= org.cheri.RuntimeResources.get_resources(self)
+  end
+
+  # call-seq:
+  #   ClassInfo.get(java_class) -> org.cheri.ClassInfo
+  #   
+  # java_class may be a java.lang.Class or a JavaClass.
+  def get(java_class)
+    resources.get_class_info(java_class)
+  end
+
+  # Returns the cache's size and hit/miss/eviction counts, as a Hash.
+  def stats
+    h = {}
+    resources.class_info_cache.to_map.each {|k,v| h[k.to_sym] = v }
+    h
+  end
+end #self
+end #ClassInfo
+
 module Interfaces
 #:stopdoc:
 CJava = Cheri::Java
@@ -159,22 +185,10 @@ class << self
     if (info = @info[key = [java_class,method_name]])
       return info
     end
-   
-    java_class.methods.each do |m|
-      if m.name.match(/add(\w+)Listener/) &&
-        m.parameter_types.length == 1 &&
-        m.parameter_types[0].name.match(/([\w|.]+)Listener/)
-        clazz = m.parameter_types[0]
-        methods = clazz.methods
-        methods.each do |im|
-          if im.name == method_name
-            info = @info[key] =  ListenerInfo.new(CJava.get_class(clazz.name),methods,m.name)
-            return info
-          end
-        end
-      end
+    if (m = ClassInfo.get(java_class).get_listener_adder(method_name))
+      clazz = m.parameter_types[0]
+      @info[key] = ListenerInfo.new(CJava.get_class(clazz.name),clazz.methods,m.name)
     end
-    nil
   end
 end # self
 end #Interfaces
@@ -184,6 +198,7 @@ end #Interfaces
 module Constants
 #:stopdoc:
 CJava = Cheri::Java
+Cache = Cheri::Builder::Cache
 #:startdoc:
 class ConstRec
   def initialize(t,d,n=nil)
@@ -204,55 +219,146 @@ class ConstRec
     @n = n  
   end
 end
-@method_cache = {}
+
+# A constants source (see ConstantResolver) backed by an org.cheri.ConstantIndex
+# of the constants declared by the named classes. Nothing is loaded until
+# the first lookup, when the index is built by reflection (or read from a
+# precomputed file; see ConstantIndex). The index finds a name's constants
+# in one hash lookup, so the ConstRec chains (in the order of the classes)
+# are cached by symbol only to spare converting the name and the results
+# between Ruby and Java, and building the chain, on each repeated lookup.
+class Index
+  def initialize(*class_names)
+    @x = ClassInfo.resources.new_constant_index(class_names.flatten.to_java(:string))
+    @c = Cache.new # sym => ConstRec chain, or false
+  end
+
+  # call-seq:
+  #   index.get(symbol) -> ConstRec or nil
+  #
+  def get(y)
+    @c.fetch(y) {|s| chain(s) } || nil
+  end
+
+  # Writes the index to file +path+ (see ConstantIndex#save).
+  def save(path)
+    @x.save(java.io.File.new(path))
+    nil
+  end
+
+  def size
+    @x.size
+  end
+
+  private
+  # the ConstRec chain for sym y, or false
+  def chain(y)
+    rec = false
+    if (consts = @x.get(y.to_s))
+      (consts.length - 1).downto(0) do |i|
+        rec = ConstRec.new(consts[i].type,consts[i].declaring_class,(rec || nil))
+      end
+    end
+    rec
+  end
+end #Index
+# The constant values chosen for each call are cached, keyed by constants
+# source, class, method (nil for a constructor), and for each arg either its
+# :CONSTANT symbol or its type (see key). A repeated resolution still builds
+# its key, an array of three entries plus one per arg, but then just copies
+# the cached values into the args, skipping the constant searches and the
+# reflection on argument types. The cache is dropped when a source changes
+# (see flush).
+@r = Cache.new # key => [[arg index,value],...]
 class << self
   def resolve_ctor(clazz,args,constants)
-    return true if args.empty?
+    return true unless (key = key(constants,clazz,nil,args))
+    if (vals = @r[key])
+      return apply(vals,args)
+    end
     # try the simple resolve first
     const_arr = simple_resolve(clazz,args)
-    return true unless const_arr
+    return store(key,args) unless const_arr
     # check against constructor argument types
     argc = args.length
-    key = "#{clazz.java_class.name}##{argc}"
-    ctor_args = @method_cache[key]
-    unless ctor_args
-      ctor_args = []
-      clazz.java_class.constructors.each do |ctor|
-        ctor_args << ctor.argument_types if ctor.arity == argc  
-      end
-      @method_cache[key] = ctor_args
-    end
+    ctor_args = ClassInfo.resources.get_constructor_argument_types(clazz.java_class,argc)
     if ctor_args.empty?
       raise NoMethodError,"No constructor found for class '#{clazz.java_class.name} with argument count #{argc}"
     end
     arg_type_resolve(clazz,const_arr,ctor_args,args,constants)
+    store(key,args)
   end
   
   def resolve_meth(clazz,method_name,args,constants)
-    return true if args.empty?
+    return true unless (key = key(constants,clazz,method_name.to_sym,args))
+    if (vals = @r[key])
+      return apply(vals,args)
+    end
     # try the simple resolve first
     const_arr = simple_resolve(clazz,args)
-    return true unless const_arr
+    return store(key,args) unless const_arr
     argc = args.length
     cased_method_name = Util.lcc(method_name)
-    key = "#{clazz.java_class.name}##{cased_method_name}##{argc}"
-    method_args = @method_cache[key]
-    unless method_args
-      method_args = []
-      clazz.java_class.java_instance_methods.each do |method|
-        if method.arity == argc && method.name == cased_method_name
-          method_args << method.argument_types
-        end
-      end
-      @method_cache[key] = method_args
-    end
+    method_args = ClassInfo.resources.get_method_argument_types(clazz.java_class,cased_method_name,argc)
     if method_args.empty?
       raise NoMethodError,"No method '#{method_name}' found in class '#{clazz.java_class.name} with argument count #{argc}"
     end
     arg_type_resolve(clazz,const_arr,method_args,args,constants)
+    store(key,args)
+  end
+
+  # Discards the cached resolutions. Called when constants sources change.
+  def flush
+    @r.clear
+    nil
   end
   
   private
+  # the cache key for a call, or nil if there are no :CONSTANT args
+  def key(constants,clazz,name,args)
+    key = [constants,clazz,name]
+    found = false
+    args.each do |a|
+      if const?(a)
+        key << a
+        found = true
+      elsif Fixnum === a
+        key << fixnum_key(a)
+      else
+        # a Java object's (proxy) class stands for its Java class
+        key << a.class
+      end
+    end
+    found ? key : nil
+  end
+
+  # what Types.type_matches_arg depends on for a Fixnum: the smallest of
+  # byte, short, int and long it fits, and whether it fits char (0-7)
+  def fixnum_key(a)
+    t = Types
+    (a >= t::BYTE_MIN && a <= t::BYTE_MAX ? 0 :
+      a >= t::SHORT_MIN && a <= t::SHORT_MAX ? 2 :
+      a >= t::INT_MIN && a <= t::INT_MAX ? 4 : 6) +
+      (a >= t::CHAR_MIN && a <= t::CHAR_MAX ? 1 : 0)
+  end
+
+  # records the values substituted for the :CONSTANT args
+  def store(key,args)
+    vals = []
+    args.each_with_index do |a,i|
+      vals << [i,a].freeze if Symbol === key[i+3]
+    end
+    @r.store(key,vals.freeze)
+    true
+  end
+
+  def apply(vals,args)
+    vals.each do |i,v|
+      args[i] = v
+    end
+    true
+  end
+
   def simple_resolve(clazz,args)
     ca = nil
     0.upto(args.length-1) do |i|
@@ -0,0 +1,112 @@
+#--
+# Copyright (C) 2007,2008 William N Dortch <bill.dortch@gmail.com>
+#
+# Permission is hereby granted, free of charge, to any person obtaining
+# a copy of this software and associated documentation files (the
+# "Software"), to deal in the Software without restriction, including
+# without limitation the rights to use, copy, modify, merge, publish,
+# distribute, sublicense, and/or sell copies of the Software, and to
+# permit persons to whom the Software is furnished to do so, subject to
+# the following conditions:
+#
+# The above copyright notice and this permission notice shall be
+# included in all copies or substantial portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+# EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+# MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+# NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+# LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+# OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+# WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+#++
+#
+
+require 'test/unit'
+require 'cheri/html'
+
+class TemplateTest < Test::Unit::TestCase
+  # Builds the page used for both the template and the whole build: a hole
+  # for markup (list items) and one for data (a String), either of which is
+  # empty when its argument is.
+  class Page
+    include Cheri::Html
+
+    # stands in for the template when building directly, calling each hole's
+    # block with the render args
+    class Direct
+      def initialize(args)
+        @a = args
+      end
+      def hole
+        yield(*@a)
+      end
+    end
+
+    def initialize(opts={})
+      @o = opts
+    end
+
+    def template
+      html_template {|t| page(t) }
+    end
+
+    def build(*args)
+      page(Direct.new(args)).to_s
+    end
+
+    def page(t)
+      html(@o) {
+        body {
+          h1 'Users'
+          ul(:class => 'users') {
+            t.hole {|users,note| users.each {|u| li u }; nil }
+          }
+          div(:id => 'note') {
+            t.hole {|users,note| note }
+          }
+        }
+      }
+    end
+    private :page
+  end
+
+  Args = [
+    [[], nil],              # empty, empty
+    [%w(ann bob), nil],     # markup, empty
+    [[], 'no users'],       # empty, data
+    [%w(cy), 'one & only'], # markup, data
+    [[], nil],              # empty again, once all are compiled
+  ]
+
+  def test_render_matches_to_s
+    page = Page.new
+    tpl = page.template
+    Args.each do |args|
+      assert_equal(page.build(*args), tpl.render(*args), args.inspect)
+    end
+  end
+
+  def test_render_matches_to_s_formatted
+    page = Page.new(:format => true)
+    tpl = page.template
+    Args.each do |args|
+      assert_equal(page.build(*args), tpl.render(*args), args.inspect)
+    end
+  end
+
+  def test_failed_first_compile_is_not_published
+    page = Page.new
+    fail = true
+    tpl = page.send(:html_template) do |t|
+      # a hole outside any element fails the first compile
+      t.hole { nil } if fail
+      page.send(:page,t)
+    end
+    assert_raise(Cheri::Builder::MarkupException) { tpl.render([],nil) }
+    fail = false
+    Args.each do |args|
+      assert_equal(page.build(*args), tpl.render(*args), args.inspect)
+    end
+  end
+end